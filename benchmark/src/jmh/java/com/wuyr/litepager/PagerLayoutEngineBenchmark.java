@@ -0,0 +1,86 @@
+package com.wuyr.litepager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 测量LitePager每帧的布局计算耗时和内存分配
+ * 运行：./gradlew :benchmark:jmh
+ *
+ * @author wuyr
+ * @github https://github.com/wuyr/LitePager
+ * @since 2026-10-17 下午5:20
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PagerLayoutEngineBenchmark {
+
+    private static final int SIZE = 1080;//滑动方向上的尺寸
+    private static final float FRAME_OFFSET = 1F / 24;//每帧滑动的距离，24帧滑过一个槽位
+
+    @Param({"3", "5", "9", "15"})
+    public int slotCount;
+
+    private PagerLayoutEngine mEngine;
+    private float mOffsetPercent;
+    private int mFrameCount;
+
+    @Setup
+    public void setup() {
+        mEngine = new PagerLayoutEngine(slotCount);
+        mEngine.setSize(SIZE);
+        mEngine.setScales(1, .8F, .6F);
+        mEngine.setAlphas(1, .4F, .2F);
+        mEngine.resetChildren(slotCount);
+        mOffsetPercent = 0;
+        mFrameCount = 0;
+    }
+
+    /**
+     * 拖动时的一帧：更新偏移、提交滑过的槽位、计算目标槽位、绘制顺序和每个子View的变换
+     */
+    @Benchmark
+    public void dragFrame(Blackhole blackhole) {
+        //来回拖动，每次都滑过两个槽位
+        mOffsetPercent += ++mFrameCount % 96 < 48 ? FRAME_OFFSET : -FRAME_OFFSET;
+        mEngine.setOffsetPercent(mOffsetPercent);
+        while (mEngine.isStepFinished()) {
+            mEngine.finishStep();
+            mEngine.updateTargets();
+        }
+        mOffsetPercent = mEngine.getOffsetPercent();
+        mEngine.updateTargets();
+        blackhole.consume(mEngine.updateDrawingOrder());
+        mEngine.updateTransforms();
+        consumeTransforms(blackhole);
+    }
+
+    /**
+     * 尺寸改变后的一帧：重新计算槽位表和每个子View的变换
+     */
+    @Benchmark
+    public void resizeFrame(Blackhole blackhole) {
+        mEngine.setSize(SIZE + (++mFrameCount & 1));
+        mEngine.updateTargets();
+        mEngine.updateTransforms();
+        consumeTransforms(blackhole);
+    }
+
+    private void consumeTransforms(Blackhole blackhole) {
+        for (int i = 0; i < slotCount; i++) {
+            blackhole.consume(mEngine.getBaseLine(i));
+            blackhole.consume(mEngine.getScale(i));
+            blackhole.consume(mEngine.getAlpha(i));
+        }
+    }
+}
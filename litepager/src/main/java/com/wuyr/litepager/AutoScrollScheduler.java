@@ -0,0 +1,159 @@
+package com.wuyr.litepager;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 全部LitePager共用的自动轮播计时器（只能在主线程使用）:
+ * 整个进程只有一个定时任务，到时间后等下一帧，把这一帧前后到期的LitePager一起轮播，
+ * 这样多个LitePager的动画会在同一帧开始，而不是各自在不相关的帧上开始
+ * 每个LitePager的下次轮播时间按固定的间隔累加，不会因为定时任务的延迟而越来越晚
+ * 没有需要轮播的LitePager时，定时任务会被移除
+ *
+ * @author wuyr
+ * @github https://github.com/wuyr/LitePager
+ * @since 2026-10-17 下午7:48
+ */
+final class AutoScrollScheduler implements Runnable {
+
+    /**
+     * 在这个时间内到期的LitePager，会提前到同一帧轮播(毫秒)
+     */
+    private static final long BATCH_WINDOW = 100;
+
+    private static AutoScrollScheduler sInstance;
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final List<LitePager> mPagers = new ArrayList<>();
+    private final List<LitePager> mDuePagers = new ArrayList<>();//这一帧要轮播的，复用同一个列表
+    private Object mFrameCallback;//Choreographer.FrameCallback，为了兼容API 16以下，用Object来保存
+    private long mScheduledTime = -1;//定时任务的触发时间，-1表示没有
+    private boolean isFramePosted;
+
+    private AutoScrollScheduler() {
+    }
+
+    static AutoScrollScheduler getInstance() {
+        if (sInstance == null) {
+            sInstance = new AutoScrollScheduler();
+        }
+        return sInstance;
+    }
+
+    /**
+     * 安排在指定时间轮播，已经安排过的话就更新时间
+     *
+     * @param time 基于{@link SystemClock#uptimeMillis()}的时间
+     */
+    void schedule(@NonNull LitePager pager, long time) {
+        pager.mAutoScrollTime = time;
+        if (!mPagers.contains(pager)) {
+            mPagers.add(pager);
+        }
+        updateTimer();
+    }
+
+    /**
+     * 取消轮播
+     */
+    void remove(@NonNull LitePager pager) {
+        if (mPagers.remove(pager)) {
+            updateTimer();
+        }
+    }
+
+    boolean isScheduled(@NonNull LitePager pager) {
+        return mPagers.contains(pager);
+    }
+
+    /**
+     * 把定时任务设到最早到期的那个时间，没有需要轮播的LitePager时移除
+     */
+    private void updateTimer() {
+        if (isFramePosted) {
+            //已经在等下一帧了，到时候会重新设置
+            return;
+        }
+        long earliestTime = -1;
+        for (int i = 0; i < mPagers.size(); i++) {
+            long time = mPagers.get(i).mAutoScrollTime;
+            if (earliestTime == -1 || time < earliestTime) {
+                earliestTime = time;
+            }
+        }
+        if (earliestTime == mScheduledTime) {
+            return;
+        }
+        mHandler.removeCallbacks(this);
+        mScheduledTime = earliestTime;
+        if (earliestTime != -1) {
+            mHandler.postAtTime(this, earliestTime);
+        }
+    }
+
+    @Override
+    public void run() {
+        mScheduledTime = -1;
+        if (mPagers.isEmpty()) {
+            return;
+        }
+        //等到下一帧再开始，跟其他动画对齐
+        isFramePosted = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            Choreographer.getInstance().postFrameCallback(getFrameCallback());
+        } else {
+            doFrame();
+        }
+    }
+
+    private void doFrame() {
+        isFramePosted = false;
+        long now = SystemClock.uptimeMillis();
+        mDuePagers.clear();
+        for (int i = 0; i < mPagers.size(); i++) {
+            LitePager pager = mPagers.get(i);
+            long time = pager.mAutoScrollTime;
+            if (time <= now + BATCH_WINDOW) {
+                //按原来的时间累加，如果中间错过了好几次（比如主线程卡住），就跳到下一个还没到的时间
+                long interval = Math.max(pager.getAutoScrollInterval(), 1);
+                if (time <= now) {
+                    time += ((now - time) / interval + 1) * interval;
+                } else {
+                    time += interval;
+                }
+                pager.mAutoScrollTime = time;
+                mDuePagers.add(pager);
+            }
+        }
+        //先把时间都更新好再回调，回调中可能会取消或者重新安排
+        for (int i = 0; i < mDuePagers.size(); i++) {
+            LitePager pager = mDuePagers.get(i);
+            if (mPagers.contains(pager)) {
+                pager.run();
+            }
+        }
+        mDuePagers.clear();
+        updateTimer();
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private Choreographer.FrameCallback getFrameCallback() {
+        if (mFrameCallback == null) {
+            mFrameCallback = new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    AutoScrollScheduler.this.doFrame();
+                }
+            };
+        }
+        return (Choreographer.FrameCallback) mFrameCallback;
+    }
+}
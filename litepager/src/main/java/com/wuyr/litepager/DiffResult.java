@@ -0,0 +1,200 @@
+package com.wuyr.litepager;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 新旧两个列表的差异（Myers差分算法），在后台线程计算，然后在主线程应用到LitePager
+ *
+ * @author wuyr
+ * @github https://github.com/wuyr/LitePager
+ * @since 2026-10-17 下午4:12
+ */
+class DiffResult<T> {
+
+    /**
+     * 编辑距离超过这个值就不再继续计算，直接当作全部数据都改变了，避免占用过多内存
+     */
+    private static final int MAX_EDIT_DISTANCE = 512;
+
+    private final List<T> mOldList;
+    private final List<T> mNewList;
+    private final ListAdapter.ItemCallback<T> mItemCallback;
+    private final int[] mOldToNew;//旧索引对应的新索引，被移除的为-1
+    private final int[] mNewToOld;//新索引对应的旧索引，新插入的为-1
+    private final boolean[] mContentChanged;//新索引对应的数据内容是否改变
+
+    private DiffResult(List<T> oldList, List<T> newList, ListAdapter.ItemCallback<T> itemCallback) {
+        mOldList = oldList;
+        mNewList = newList;
+        mItemCallback = itemCallback;
+        mOldToNew = new int[oldList.size()];
+        mNewToOld = new int[newList.size()];
+        mContentChanged = new boolean[newList.size()];
+        Arrays.fill(mOldToNew, -1);
+        Arrays.fill(mNewToOld, -1);
+    }
+
+    /**
+     * 计算两个列表的差异，耗时操作，需要在后台线程调用
+     */
+    @NonNull
+    static <T> DiffResult<T> calculate(@NonNull List<T> oldList, @NonNull List<T> newList,
+                                       @NonNull ListAdapter.ItemCallback<T> itemCallback) {
+        DiffResult<T> result = new DiffResult<>(oldList, newList, itemCallback);
+        if (result.findCommonItems()) {
+            result.findMovedItems();
+        }
+        result.findChangedItems();
+        return result;
+    }
+
+    /**
+     * 用Myers算法找出最长的相同子序列
+     *
+     * @return 是否在编辑距离上限内完成
+     */
+    private boolean findCommonItems() {
+        int oldSize = mOldList.size(), newSize = mNewList.size();
+        int max = oldSize + newSize;
+        int offset = max + 1;
+        int[] v = new int[2 * max + 3];
+        //每一步的v数组快照（只保存-d~d范围内的），回溯时使用
+        List<int[]> trace = new ArrayList<>();
+        int maxDistance = Math.min(max, MAX_EDIT_DISTANCE);
+        for (int d = 0; d <= maxDistance; d++) {
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) {
+                    x = v[offset + k + 1];
+                } else {
+                    x = v[offset + k - 1] + 1;
+                }
+                int y = x - k;
+                while (x < oldSize && y < newSize && mItemCallback.areItemsTheSame(mOldList.get(x), mNewList.get(y))) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= oldSize && y >= newSize) {
+                    trace.add(Arrays.copyOfRange(v, offset - d, offset + d + 1));
+                    backtrack(trace, oldSize, newSize);
+                    return true;
+                }
+            }
+            trace.add(Arrays.copyOfRange(v, offset - d, offset + d + 1));
+        }
+        return false;
+    }
+
+    /**
+     * 从终点往回走，记录下沿途的对角线（相同的数据）
+     */
+    private void backtrack(List<int[]> trace, int x, int y) {
+        for (int d = trace.size() - 1; d > 0; d--) {
+            int[] previous = trace.get(d - 1);
+            int k = x - y;
+            int previousK;
+            //previous数组的下标0对应k=-(d-1)
+            if (k == -d || (k != d && previous[k - 1 + d - 1] < previous[k + 1 + d - 1])) {
+                previousK = k + 1;
+            } else {
+                previousK = k - 1;
+            }
+            int previousX = previous[previousK + d - 1];
+            int previousY = previousX - previousK;
+            while (x > previousX && y > previousY) {
+                x--;
+                y--;
+                match(x, y);
+            }
+            x = previousX;
+            y = previousY;
+        }
+        while (x > 0 && y > 0) {
+            x--;
+            y--;
+            match(x, y);
+        }
+    }
+
+    /**
+     * 在剩下的数据中找出被移动过的
+     */
+    private void findMovedItems() {
+        for (int oldPosition = 0; oldPosition < mOldToNew.length; oldPosition++) {
+            if (mOldToNew[oldPosition] != -1) {
+                continue;
+            }
+            T oldItem = mOldList.get(oldPosition);
+            for (int newPosition = 0; newPosition < mNewToOld.length; newPosition++) {
+                if (mNewToOld[newPosition] == -1 && mItemCallback.areItemsTheSame(oldItem, mNewList.get(newPosition))) {
+                    match(oldPosition, newPosition);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void findChangedItems() {
+        for (int newPosition = 0; newPosition < mNewToOld.length; newPosition++) {
+            int oldPosition = mNewToOld[newPosition];
+            mContentChanged[newPosition] = oldPosition != -1
+                    && !mItemCallback.areContentsTheSame(mOldList.get(oldPosition), mNewList.get(newPosition));
+        }
+    }
+
+    private void match(int oldPosition, int newPosition) {
+        mOldToNew[oldPosition] = newPosition;
+        mNewToOld[newPosition] = oldPosition;
+    }
+
+    @NonNull
+    List<T> getNewList() {
+        return mNewList;
+    }
+
+    /**
+     * @return 旧索引在新列表中的索引，如果已被移除，则返回-1
+     */
+    int getNewPosition(int oldPosition) {
+        return oldPosition < 0 || oldPosition >= mOldToNew.length ? -1 : mOldToNew[oldPosition];
+    }
+
+    /**
+     * 找出旧索引在新列表中最接近的位置，用来保持选中的数据不变:
+     * 如果它已被移除，则使用它后面（没有的话就是前面）第一个被保留下来的数据
+     */
+    int getNearestNewPosition(int oldPosition) {
+        for (int i = oldPosition; i < mOldToNew.length; i++) {
+            if (mOldToNew[i] != -1) {
+                return mOldToNew[i];
+            }
+        }
+        for (int i = Math.min(oldPosition, mOldToNew.length) - 1; i >= 0; i--) {
+            if (mOldToNew[i] != -1) {
+                return mOldToNew[i];
+            }
+        }
+        return Math.max(0, Math.min(oldPosition, mNewToOld.length - 1));
+    }
+
+    /**
+     * @return 新索引对应的数据是否跟旧数据是同一个但内容改变了
+     */
+    boolean isContentChanged(int newPosition) {
+        return newPosition >= 0 && newPosition < mContentChanged.length && mContentChanged[newPosition];
+    }
+
+    /**
+     * 获取局部更新的数据，在主线程调用
+     */
+    @Nullable
+    Object getChangePayload(int newPosition) {
+        return mItemCallback.getChangePayload(mOldList.get(mNewToOld[newPosition]), mNewList.get(newPosition));
+    }
+}
@@ -0,0 +1,122 @@
+package com.wuyr.litepager;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.view.View;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * 通过{@link #submitList(List)}来更新数据的适配器:
+ * 新旧列表的差异在后台线程计算，计算完成后等LitePager静止时，只重新绑定受影响的子View
+ *
+ * @author wuyr
+ * @github https://github.com/wuyr/LitePager
+ * @since 2026-10-17 下午4:40
+ */
+@SuppressWarnings("WeakerAccess")
+public abstract class ListAdapter<T, V extends View> extends LitePager.Adapter<V> {
+
+    private static final Executor DIFF_EXECUTOR = Executors.newSingleThreadExecutor();
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    private final ItemCallback<T> mItemCallback;
+    private List<T> mList = Collections.emptyList();
+    private int mMaxScheduledGeneration;//每次提交新列表都会+1，用来丢弃过时的计算结果
+
+    protected ListAdapter(@NonNull ItemCallback<T> itemCallback) {
+        mItemCallback = itemCallback;
+    }
+
+    /**
+     * 提交新的列表，在主线程调用
+     * 注意：提交之后不要再修改这个列表
+     *
+     * @param newList 新的列表
+     */
+    public void submitList(@Nullable final List<T> newList) {
+        final int generation = ++mMaxScheduledGeneration;
+        //还没应用的差异是基于旧列表算出来的，有新列表提交时就作废，否则会在新列表的基础上再应用一次
+        cancelPendingDiffResult();
+        if (newList == mList) {
+            return;
+        }
+        //没有旧数据或者清空数据时，不需要计算差异
+        if (newList == null || newList.isEmpty() || mList.isEmpty()) {
+            mList = newList == null ? Collections.<T>emptyList() : newList;
+            notifyDataSetChanged();
+            return;
+        }
+        final List<T> oldList = mList;
+        DIFF_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                final DiffResult<T> result = DiffResult.calculate(oldList, newList, mItemCallback);
+                MAIN_HANDLER.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation == mMaxScheduledGeneration) {
+                            dispatchDiffResult(result);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 获取当前正在使用的列表，新提交的列表在应用到LitePager之后才会生效
+     */
+    @NonNull
+    public List<T> getCurrentList() {
+        return mList;
+    }
+
+    protected T getItem(int position) {
+        return mList.get(position);
+    }
+
+    @Override
+    protected int getItemCount() {
+        return mList.size();
+    }
+
+    @Override
+    void onSwapList(@NonNull DiffResult<?> result) {
+        //noinspection unchecked
+        mList = (List<T>) result.getNewList();
+    }
+
+    /**
+     * 用来判断新旧数据是否相同，在后台线程调用
+     */
+    public static abstract class ItemCallback<T> {
+
+        /**
+         * @return 是否同一个数据（如id相同）
+         */
+        public abstract boolean areItemsTheSame(@NonNull T oldItem, @NonNull T newItem);
+
+        /**
+         * 在{@link #areItemsTheSame(Object, Object)}返回true时调用
+         *
+         * @return 数据的内容是否相同，不相同的话会重新绑定
+         */
+        public abstract boolean areContentsTheSame(@NonNull T oldItem, @NonNull T newItem);
+
+        /**
+         * 在内容不相同时调用（主线程）
+         *
+         * @return 局部更新的数据，会传到{@link ListAdapter#onBindView(View, int, List)}中，返回null则完整绑定
+         */
+        @Nullable
+        public Object getChangePayload(@NonNull T oldItem, @NonNull T newItem) {
+            return null;
+        }
+    }
+}
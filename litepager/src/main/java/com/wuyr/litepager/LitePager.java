@@ -1,12 +1,17 @@
 package com.wuyr.litepager;
 
-import android.animation.Animator;
-import android.animation.AnimatorListenerAdapter;
-import android.animation.ValueAnimator;
 import android.annotation.SuppressLint;
+import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Canvas;
 import android.graphics.Matrix;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.Build;
+import android.os.PowerManager;
+import android.os.SystemClock;
+import android.provider.Settings;
 import android.support.annotation.CallSuper;
 import android.support.annotation.FloatRange;
 import android.support.annotation.IntDef;
@@ -15,18 +20,21 @@ import android.support.annotation.LayoutRes;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.util.AttributeSet;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
 import android.view.LayoutInflater;
 import android.view.MotionEvent;
 import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewConfiguration;
 import android.view.ViewGroup;
-import android.view.animation.DecelerateInterpolator;
-import android.view.animation.Interpolator;
+import android.view.ViewTreeObserver;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -42,6 +50,8 @@ public class LitePager extends ViewGroup implements Runnable {
 
     private static final int DEFAULT_SCROLL_INTERVAL = 5000;
     private static final int DEFAULT_FLING_DURATION = 400;
+    private static final int MIN_FLING_VELOCITY = 1000;//触发惯性滑动的最小速率(像素/秒)
+    private static final float MIN_SELECTION_PAGES = .25F;//setSelection计算时长时，剩下的距离最少按多少页算
 
     private static final float DEFAULT_MIDDLE_SCALE = .8F;
     private static final float DEFAULT_MIDDLE_ALPHA = .4F;
@@ -49,6 +59,8 @@ public class LitePager extends ViewGroup implements Runnable {
     private static final float DEFAULT_BOTTOM_SCALE = .6F;
     private static final float DEFAULT_BOTTOM_ALPHA = .2F;
 
+    private static final int DEFAULT_VISIBLE_ITEM_COUNT = 5;//默认最多可同时存在的子View数量
+
     public static final int ORIENTATION_HORIZONTAL = 0;//水平方向
     public static final int ORIENTATION_VERTICAL = 1;//垂直方向
 
@@ -70,6 +82,19 @@ public class LitePager extends ViewGroup implements Runnable {
     private boolean mAutoScrollEnable;
     private int mAutoScrollOrientation;
     private long mAutoScrollInterval;
+    long mAutoScrollTime;//下次自动轮播的时间(SystemClock.uptimeMillis)，由AutoScrollScheduler维护
+    private long mAutoScrollRemaining = -1;//不可见时暂停，剩余的轮播间隔，-1表示没有暂停
+    private boolean isAttached;//是否已经添加到窗口上
+    private boolean isAutoScrollSuspended;//手指按下后暂停自动轮播，直到松手并且静止
+    private boolean isVisibleToUser;//用户能不能看到（自身和全部父View可见、窗口可见、并且可见区域不为空）
+    private Rect mVisibleRect = new Rect();
+    private ViewTreeObserver.OnScrollChangedListener mScrollChangedListener = new ViewTreeObserver.OnScrollChangedListener() {
+        @Override
+        public void onScrollChanged() {
+            //父View滚动后，可能被滚出了屏幕
+            updateVisibleToUser();
+        }
+    };
 
     public static final int STATE_IDLE = 0;//静止状态
 
@@ -93,12 +118,21 @@ public class LitePager extends ViewGroup implements Runnable {
     private float mTopScale, mMiddleScale, mBottomScale;//缩放比例
     private float mTopAlpha, mMiddleAlpha, mBottomAlpha;//不透明度
     private float mOffsetX, mOffsetY;//水平和垂直偏移量
-    private float mOffsetPercent;//偏移的百分比
-    private boolean isReordered;//是否已经交换过层级顺序
     private boolean isAnotherActionDown;//是不是有另外的手指按下
+    private boolean isDragMovePending;//拖动的偏移量已经累加，但还没有更新子View
+    private boolean isSettleTouched;//在调整动画播放中按下，还没有移动超过阈值
     private VelocityTracker mVelocityTracker;
-    private ValueAnimator mAnimator;
+    private SettleAnimator mSettleAnimator;//调整动画，全部手势共用同一个
+    private float mSettleBaseOffset;//调整动画开始后，已经提交了的整页偏移量
+    private float mSystemDurationScale;//系统设置的动画时长缩放比例，只在创建时读取一次
+    private boolean isReducedMotion;//是否减少动画：调整时直接跳到目标位置
     private Adapter mAdapter;
+    private int mVisibleItemCount;//最多可同时存在的子View数量(槽位数量)
+    private int mItemCount;//适配器的数据数量
+    private int mCurrentPosition;//虚拟化模式下，当前选中的数据索引
+    private RecycledViewPool mRecycledViewPool;
+    private PerformanceStats mPerformanceStats;//性能统计，没有开启时为null
+    private PagerLayoutEngine mEngine;//槽位、偏移、插值和绘制顺序的计算
 
     private OnScrollListener mOnScrollListener;
     private OnItemSelectedListener mOnItemSelectedListener;
@@ -116,6 +150,10 @@ public class LitePager extends ViewGroup implements Runnable {
         initAttrs(context, attrs, defStyleAttr);
         mTouchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
         mVelocityTracker = VelocityTracker.obtain();
+        mSettleAnimator = new SettleAnimator(this, mSettleModel, mSettleCallback);
+        mSystemDurationScale = getSystemDurationScale(context);
+        updateDurationScale();
+        setChildrenDrawingOrderEnabled(true);
     }
 
     private void initAttrs(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
@@ -136,10 +174,45 @@ public class LitePager extends ViewGroup implements Runnable {
         mAutoScrollOrientation = a.getInteger(R.styleable.LitePager_autoScrollOrientation, SCROLL_ORIENTATION_LEFT);
         mAutoScrollInterval = a.getInteger(R.styleable.LitePager_autoScrollInterval, DEFAULT_SCROLL_INTERVAL);
 
+        mVisibleItemCount = fixVisibleItemCount(a.getInteger(R.styleable.LitePager_visibleItemCount, DEFAULT_VISIBLE_ITEM_COUNT));
+        isReducedMotion = a.getBoolean(R.styleable.LitePager_reducedMotion, isPowerSaveMode(context));
+        isOcclusionCullingEnabled = a.getBoolean(R.styleable.LitePager_occlusionCulling, false);
+        isHardwareLayerEnabled = a.getBoolean(R.styleable.LitePager_hardwareLayerEnabled, false);
+        hasFixedItemSize = a.getBoolean(R.styleable.LitePager_hasFixedItemSize, false);
+        mEngine = new PagerLayoutEngine(mVisibleItemCount);
+        allocateChildArrays();
+
         a.recycle();
         fixOverflow();
+        updateEngineStyle();
+    }
+
+    /**
+     * 读取系统设置（开发者选项或省电模式）中的动画时长缩放比例
+     */
+    private float getSystemDurationScale(Context context) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            return Settings.Global.getFloat(context.getContentResolver(), Settings.Global.ANIMATOR_DURATION_SCALE, 1);
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            //noinspection deprecation
+            return Settings.System.getFloat(context.getContentResolver(), Settings.System.ANIMATOR_DURATION_SCALE, 1);
+        }
+        return 1;
+    }
 
+    private boolean isPowerSaveMode(Context context) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            PowerManager powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+            return powerManager != null && powerManager.isPowerSaveMode();
+        }
+        return false;
+    }
 
+    /**
+     * 更新调整动画的时长缩放比例：减少动画时为0（不播放），否则跟随系统设置
+     */
+    private void updateDurationScale() {
+        mSettleAnimator.setDurationScale(isReducedMotion ? 0 : mSystemDurationScale);
     }
 
     /**
@@ -158,6 +231,13 @@ public class LitePager extends ViewGroup implements Runnable {
         return value > 1 ? 1 : value < 0 ? 0 : value;
     }
 
+    /**
+     * 槽位数量必须是不小于3的奇数（中间一个，两边对称）
+     */
+    private int fixVisibleItemCount(int count) {
+        return PagerLayoutEngine.fixSlotCount(count);
+    }
+
     /**
      * 批量添加子View
      *
@@ -195,60 +275,45 @@ public class LitePager extends ViewGroup implements Runnable {
      * @param target 目标子View
      */
     public void setSelection(View target) {
-        setSelection(indexOfChild(target));
+        int index = indexOfChild(target);
+        if (index != -1) {
+            setSelection(getChildSlot(index));
+        }
     }
 
-    private boolean isNeedPlayTwice;
-    private int mSelectedIndex;
-
     /**
-     * 根据索引选中子View
+     * 根据索引选中子View，无论离中间槽位有多远，都只播放一次动画
+     * 如果正在播放调整动画，则从当前的位置和速率转向新的目标
+     *
+     * @param index 子View所在的槽位，中间的槽位(最后一个)表示回到当前选中的子View
      */
     public void setSelection(int index) {
-        if (indexOfChild(getChildAt(getChildCount() - 1)) == index ||
-                getChildCount() == 0 || (mAnimator != null && mAnimator.isRunning() && !isNeedPlayTwice)) {
+        int slotCount = getSlotCount();
+        if (getChildCount() == 0 || index < 0 || index > slotCount - 1) {
             return;
         }
-        final float start, end;
-        start = isHorizontal() ? mOffsetX : mOffsetY;
-        if (is5Child()) {
-            switch (index) {
-                case 0:
-                    isNeedPlayTwice = index != mSelectedIndex;
-                case 2:
-                    end = isHorizontal() ? getWidth() : getHeight();
-                    break;
-                case 1:
-                    //noinspection DuplicateBranchesInSwitch
-                    isNeedPlayTwice = index != mSelectedIndex;
-                case 3:
-                    end = isHorizontal() ? -getWidth() : -getHeight();
-                    break;
-                default:
-                    return;
-            }
-        } else {
-            if (index == 0) {
-                end = isHorizontal() ? getWidth() : getHeight();
-            } else if (index == 1) {
-                end = isHorizontal() ? -getWidth() : -getHeight();
-            } else {
-                return;
-            }
-        }
-        mSelectedIndex = index;
-        startValueAnimator(start, end);
+        //拖动中还没应用的偏移量要先应用，槽位才是最新的
+        flushDragMove();
+        int relativeIndex = PagerLayoutEngine.getRelativeIndex(index, slotCount);
+        int pageSize = isHorizontal() ? getWidth() : getHeight();
+        float start = isHorizontal() ? mOffsetX : mOffsetY;
+        float end = pageSize * -relativeIndex;
+        //按剩下的距离算时长，距离越远时长越长，但每一页的时长会越来越短
+        //动画中途选中中间的子View时，剩下的距离可能很短，至少要保留一点时长，不然会直接跳过去
+        float pages = pageSize == 0 ? 0 : Math.abs(end - start) / pageSize;
+        startSettleAnimation(start, end, (long) (mFlingDuration * Math.sqrt(Math.max(pages, MIN_SELECTION_PAGES))), 0);
     }
 
     /**
      * 播放调整动画
      */
     private void playFixingAnimation() {
+        flushDragMove();
         int childCount = getChildCount();
         if (childCount == 0) {
             return;
         }
-        float start, end;
+        float start, end, velocity = 0;
         mVelocityTracker.computeCurrentVelocity(1000);
         float velocityX = mVelocityTracker.getXVelocity();
         float velocityY = mVelocityTracker.getYVelocity();
@@ -256,110 +321,141 @@ public class LitePager extends ViewGroup implements Runnable {
         if (isHorizontal()) {
             start = mOffsetX;
             //优先根据滑动速率来判断，处理在Fixing的时候手指往相反方向快速滑动
-            if (Math.abs(velocityX) > Math.abs(velocityY) && Math.abs(velocityX) > 1000) {
-                end = velocityX < 0 ? -getWidth() : getWidth();
-            } else if (Math.abs(mOffsetPercent) > .5F) {
-                end = mOffsetPercent < 0 ? -getWidth() : getWidth();
+            if (Math.abs(velocityX) > Math.abs(velocityY) && Math.abs(velocityX) > MIN_FLING_VELOCITY) {
+                end = getFlingPages(start, velocityX, getWidth()) * getWidth();
+                velocity = velocityX;
+            } else if (Math.abs(mEngine.getOffsetPercent()) > .5F) {
+                end = mEngine.getOffsetPercent() < 0 ? -getWidth() : getWidth();
             } else {
                 end = 0;
             }
         } else {
             start = mOffsetY;
             //优先根据滑动速率来判断，处理在Fixing的时候手指往相反方向快速滑动
-            if (Math.abs(velocityY) > Math.abs(velocityX) && Math.abs(velocityY) > 1000) {
-                end = velocityY < 0 ? -getHeight() : getHeight();
-            } else if (Math.abs(mOffsetPercent) > .5F) {
-                end = mOffsetPercent < 0 ? -getHeight() : getHeight();
+            if (Math.abs(velocityY) > Math.abs(velocityX) && Math.abs(velocityY) > MIN_FLING_VELOCITY) {
+                end = getFlingPages(start, velocityY, getHeight()) * getHeight();
+                velocity = velocityY;
+            } else if (Math.abs(mEngine.getOffsetPercent()) > .5F) {
+                end = mEngine.getOffsetPercent() < 0 ? -getHeight() : getHeight();
             } else {
                 end = 0;
             }
         }
-        startValueAnimator(start, end);
+        //惯性滑动时带着松手的速率开始，使动画跟手指的速度衔接上
+        startSettleAnimation(start, end, mFlingDuration, velocity);
+    }
+
+    /**
+     * 根据松手时的速率，预测出惯性滑动会经过多少页（带方向），至少一页
+     * 减速插值器的初始速率是平均速率的2倍，所以按这个速率滑动时，经过的距离是：速率 * 时长 / 2
+     *
+     * @param offset   当前偏移量
+     * @param velocity 松手时的速率(像素/秒)
+     * @param size     一页的尺寸
+     */
+    private int getFlingPages(float offset, float velocity, int size) {
+        float distance = velocity * mFlingDuration / 2000F;
+        int pages = Math.round((offset + distance) / size);
+        //跟速率方向相反或者原地不动时，往速率方向滑一页
+        if (pages == 0 || (pages < 0) != (velocity < 0)) {
+            pages = velocity < 0 ? -1 : 1;
+        }
+        return pages;
     }
 
     /**
-     * 开始播放动画
+     * 开始播放动画，正在播放的话会直接转向新的目标，不会先停下来
      *
-     * @param start 初始坐标
-     * @param end   结束坐标
+     * @param start    初始坐标
+     * @param end      结束坐标，可以跨越多页
+     * @param duration 时长
+     * @param velocity 初始速率(像素/秒)
      */
-    private void startValueAnimator(float start, float end) {
-        if (start == end) {
+    private void startSettleAnimation(float start, float end, long duration, float velocity) {
+        if (start == end && !mSettleAnimator.isRunning()) {
             return;
         }
-        abortAnimation();
-        mAnimator = ValueAnimator.ofFloat(start, end).setDuration(mFlingDuration);
-        mAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-            @Override
-            public void onAnimationUpdate(ValueAnimator animation) {
-                float currentValue = (float) animation.getAnimatedValue();
-                if (isHorizontal()) {
-                    mOffsetX = currentValue;
-                } else {
-                    mOffsetY = currentValue;
-                }
-                onItemMove();
+        if (mPerformanceStats != null) {
+            if (mSettleAnimator.isRunning()) {
+                mPerformanceStats.mSettleRetargetCount++;
+            } else {
+                mPerformanceStats.mSettleStartCount++;
             }
-        });
-        mAnimator.setInterpolator(mInterpolator);
-        mAnimator.addListener(mAnimatorListener);
-        ValueAnimatorUtil.resetDurationScale();
-        mAnimator.start();
+        }
+        mSettleBaseOffset = 0;
+        mSettleAnimator.start(start, end, duration, velocity);
+        if (!isVisibleToUser) {
+            //用户看不到，不用播放动画，跟减少动画一样直接跳到目标位置
+            mSettleAnimator.end();
+        }
     }
 
     /**
-     * 调整动画的插值器，现在是减速
+     * 调整动画的运动模型，默认是固定时长 + 减速插值器
      */
-    private Interpolator mInterpolator = new DecelerateInterpolator();
+    private SettleModel mSettleModel = new SettleModel.FixedDuration();
 
-    private Animator.AnimatorListener mAnimatorListener = new AnimatorListenerAdapter() {
-
-        private boolean isCanceled;
+    private SettleAnimator.Callback mSettleCallback = new SettleAnimator.Callback() {
 
         @Override
-        public void onAnimationCancel(Animator animation) {
-            isCanceled = true;
-            isNeedPlayTwice = false;
+        public void onSettleUpdate(float value) {
+            //动画的值是连续的，减去已经提交了的整页偏移才是当前的偏移量
+            if (isHorizontal()) {
+                mOffsetX = value - mSettleBaseOffset;
+            } else {
+                mOffsetY = value - mSettleBaseOffset;
+            }
+            boolean traced = TraceSection.begin(TraceSection.SETTLE_FRAME);
+            onItemMove();
+            TraceSection.end(traced);
         }
 
         @Override
-        public void onAnimationStart(Animator animation) {
-            isCanceled = false;
+        public void onSettleEnd() {
+            mCurrentState = STATE_IDLE;
+            isAnotherActionDown = false;
+            updateChildLayers();
+            if (mOnScrollListener != null) {
+                mOnScrollListener.onStateChanged(mCurrentState);
+            }
+            if (mOnItemSelectedListener != null) {
+                mOnItemSelectedListener.onItemSelected(getSelectedChild());
+            }
+            performPendingUpdates();
+            resumeAutoScroll();
         }
+    };
 
-        @Override
-        public void onAnimationEnd(Animator animation) {
-            if (!isCanceled) {
-                if (isNeedPlayTwice) {
-                    setSelection(mSelectedIndex);
-                } else {
-                    mSelectedIndex = -1;
-                    mCurrentState = STATE_IDLE;
-                    isAnotherActionDown = false;
-                    if (mOnScrollListener != null) {
-                        mOnScrollListener.onStateChanged(mCurrentState);
-                    }
-                    if (mOnItemSelectedListener != null) {
-                        mOnItemSelectedListener.onItemSelected(getSelectedChild());
-                    }
-                }
-                if (mPostOnAnimationEnd) {
-                    mPostOnAnimationEnd = false;
-                    if (mTempAdapter != null) {
-                        updateAdapterDataNow(mTempAdapter);
-                        mTempAdapter = null;
-                    }
-                }
+    /**
+     * 执行在拖动或播放动画期间被推迟的数据更新
+     */
+    private void performPendingUpdates() {
+        if (isBeingDragged || mSettleAnimator.isRunning()) {
+            return;
+        }
+        if (mPendingDiffResult != null) {
+            DiffResult<?> result = mPendingDiffResult;
+            mPendingDiffResult = null;
+            applyDiffResult(result);
+        }
+        if (mPostOnAnimationEnd) {
+            mPostOnAnimationEnd = false;
+            if (mTempAdapter != null) {
+                updateAdapterDataNow(mTempAdapter);
+                mTempAdapter = null;
             }
         }
-    };
+    }
 
     /**
      * 打断调整动画
      */
     private void abortAnimation() {
-        if (mAnimator != null && mAnimator.isRunning()) {
-            mAnimator.cancel();
+        if (mSettleAnimator.isRunning()) {
+            mSettleAnimator.cancel();
+            if (mPerformanceStats != null) {
+                mPerformanceStats.mSettleCancelCount++;
+            }
         }
     }
 
@@ -374,32 +470,64 @@ public class LitePager extends ViewGroup implements Runnable {
                 playFixingAnimation();
                 return false;
             case MotionEvent.ACTION_DOWN:
-                if (isSettling()) {
-                    return false;
+                //正在调整时按下，动画先继续播放，移动超过阈值后才停下来开始拖动，松手时没超过就当作点击
+                isSettleTouched = mSettleAnimator.isRunning();
+                if (isSettleTouched) {
+                    break;
                 }
                 //在空白的地方按下，会拦截，但还没标记已经开始了
                 isBeingDragged = true;
-            case MotionEvent.ACTION_MOVE:
                 if (isAnotherActionDown) {
                     return false;
                 }
                 abortAnimation();
-                float offsetX = x - mLastX;
-                float offsetY = y - mLastY;
-                mOffsetX += offsetX;
-                mOffsetY += offsetY;
+                mOffsetX += x - mLastX;
+                mOffsetY += y - mLastY;
                 onItemMove();
                 break;
+            case MotionEvent.ACTION_MOVE:
+                if (isAnotherActionDown) {
+                    return false;
+                }
+                if (isSettleTouched) {
+                    if (!isTouchSlopExceeded(x, y)) {
+                        break;
+                    }
+                    //从动画当前的位置开始拖动
+                    isSettleTouched = false;
+                    isBeingDragged = true;
+                    abortAnimation();
+                    break;
+                }
+                abortAnimation();
+                //只累加偏移量，等到这一帧绘制之前再统一更新子View，
+                //一帧内收到多个MOVE事件时只计算一次（速率计算已经在上面拿到了全部的历史点）
+                mOffsetX += x - mLastX;
+                mOffsetY += y - mLastY;
+                if (!isDragMovePending) {
+                    isDragMovePending = true;
+                    invalidate();
+                }
+                break;
             case MotionEvent.ACTION_UP:
             case MotionEvent.ACTION_CANCEL:
             case MotionEvent.ACTION_OUTSIDE:
+                //松手前先把还没更新的偏移量应用上
+                flushDragMove();
+                //调整的过程中按下后被取消，让动画继续
+                if (isSettleTouched && event.getAction() != MotionEvent.ACTION_UP) {
+                    isSettleTouched = false;
+                    resetDragFlag();
+                    break;
+                }
                 //因为isSettling方法不能收到isBeingDragged=false
-                if (isSettling()) {
+                if (isSettling() && !isSettleTouched) {
                     resetDragFlag();
                     break;
                 }
                 resetDragFlag();
                 handleActionUp(x, y);
+                performPendingUpdates();
                 break;
             default:
                 break;
@@ -409,6 +537,27 @@ public class LitePager extends ViewGroup implements Runnable {
         return true;
     }
 
+    /**
+     * 在绘制之前更新拖动后的子View，跟这一帧的绘制在同一个刷新周期内，不会延迟一帧
+     */
+    private ViewTreeObserver.OnPreDrawListener mPreDrawListener = new ViewTreeObserver.OnPreDrawListener() {
+        @Override
+        public boolean onPreDraw() {
+            flushDragMove();
+            return true;
+        }
+    };
+
+    /**
+     * 把累加的拖动偏移量应用到子View上
+     */
+    private void flushDragMove() {
+        if (isDragMovePending) {
+            isDragMovePending = false;
+            onItemMove();
+        }
+    }
+
     /**
      * 判断当前状态是否正在调整位置中
      */
@@ -422,121 +571,236 @@ public class LitePager extends ViewGroup implements Runnable {
 
     /**
      * 更新子View信息（位置，尺寸，透明度）
+     * 子View只在onLayout中布局一次，滑动时只更新位移、缩放和不透明度，不会触发重新布局
      */
     private void onItemMove() {
+        //滑动方向上的尺寸为0时（比如被折叠了），偏移百分比会变成无穷大，等有尺寸了再更新
+        if ((isHorizontal() ? getWidth() : getHeight()) == 0) {
+            return;
+        }
+        long startTime = mPerformanceStats == null ? 0 : System.nanoTime();
+        syncEngineChildren();
         updateOffsetPercent();
         updateFromAndTo();
         updateChildOrder();
-        requestLayout();
+        updateChildTransforms();
+        if (mPerformanceStats != null) {
+            mPerformanceStats.onItemMove(System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * 子View被外部移除后（引擎中的子View数量对不上），按现有的子View重新排列
+     */
+    private void syncEngineChildren() {
+        if (mEngine.getChildCount() != getChildCount()) {
+            mEngine.resetChildren(getChildCount());
+            invalidateChildTransforms();
+        }
+    }
+
+    /**
+     * @return 子View所在的槽位
+     */
+    private int getChildSlot(int index) {
+        syncEngineChildren();
+        return mEngine.getFrom(index);
     }
 
     /**
-     * 更新子View的层级顺序
+     * 更新子View的层级顺序：只改变绘制顺序，不会改动子View在ViewGroup中的索引
      */
     private void updateChildOrder() {
-        if (Math.abs(mOffsetPercent) > .5F) {
-            if (!isReordered) {
-                if (is5Child()) {
-                    if (mOffsetPercent > 0) {
-                        reOrder(0, 3, 1, 4, 2);
-                    } else {
-                        reOrder(2, 0, 4, 1, 3);
-                    }
-                } else {
-                    exchangeOrder(1, 2);
-                }
-                isReordered = true;
-            }
-        } else {
-            if (isReordered) {
-                if (is5Child()) {
-                    if (mOffsetPercent > 0) {
-                        reOrder(2, 0, 4, 1, 3);
-                    } else {
-                        reOrder(0, 3, 1, 4, 2);
-                    }
-                } else {
-                    exchangeOrder(1, 2);
-                }
-                isReordered = false;
+        boolean traced = TraceSection.begin(TraceSection.UPDATE_CHILD_ORDER);
+        syncEngineChildren();
+        if (mEngine.updateDrawingOrder()) {
+            if (mPerformanceStats != null) {
+                mPerformanceStats.mReorderCount++;
             }
+            invalidate();
         }
+        TraceSection.end(traced);
     }
 
-    private List<View> mTempViewList = new ArrayList<>(5);
+    @Override
+    protected int getChildDrawingOrder(int childCount, int i) {
+        return mEngine.getDrawingOrder(childCount, i);
+    }
 
-    private void reOrder(int... indexes) {
-        mTempViewList.clear();
-        for (int index : indexes) {
-            if (index >= getChildCount()) {
-                break;
+    private boolean isOcclusionCullingEnabled;//是否跳过被上层完全挡住的子View
+    private RectF[] mChildRects;//每个子View变换后在LitePager中的区域
+    private int[] mOccluders;//能挡住下层的子View索引
+    private boolean[] isChildCulled;//这一帧是否跳过绘制
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        if (isOcclusionCullingEnabled) {
+            updateCulledChildren();
+        }
+        super.dispatchDraw(canvas);
+    }
+
+    @Override
+    protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        if (isOcclusionCullingEnabled) {
+            int index = indexOfChild(child);
+            if (index >= 0 && index < isChildCulled.length && isChildCulled[index]) {
+                return false;
             }
-            mTempViewList.add(getChildAt(index));
         }
-        detachAllViewsFromParent();
-        for (int i = 0; i < mTempViewList.size(); i++) {
-            View tmp = mTempViewList.get(i);
-            attachViewToParent(tmp, i, tmp.getLayoutParams());
+        return super.drawChild(canvas, child, drawingTime);
+    }
+
+    /**
+     * 从最上层开始，计算每个子View变换后的区域，
+     * 被上层某一个不透明的子View完全盖住的，这一帧就不绘制了
+     * 只有{@link View#isOpaque()}返回true（比如设置了不透明的背景，并且不透明度为1）的子View才能挡住下层
+     */
+    private void updateCulledChildren() {
+        int childCount = Math.min(getChildCount(), isChildCulled.length);
+        int occluderCount = 0;
+        for (int i = childCount - 1; i >= 0; i--) {
+            int index = getChildDrawingOrder(childCount, i);
+            View child = getChildAt(index);
+            isChildCulled[index] = false;
+            if (child.getVisibility() != VISIBLE) {
+                continue;
+            }
+            RectF rect = mChildRects[index];
+            rect.set(0, 0, child.getWidth(), child.getHeight());
+            child.getMatrix().mapRect(rect);
+            rect.offset(child.getLeft(), child.getTop());
+            for (int j = 0; j < occluderCount; j++) {
+                if (mChildRects[mOccluders[j]].contains(rect)) {
+                    isChildCulled[index] = true;
+                    break;
+                }
+            }
+            if (!isChildCulled[index] && child.isOpaque()) {
+                mOccluders[occluderCount++] = index;
+            }
         }
-        mTempViewList.clear();
-        invalidate();
     }
 
+    /**
+     * 获取最上层的子View
+     */
+    private View getTopChild() {
+        int childCount = getChildCount();
+        return childCount == 0 ? null : getChildAt(getChildDrawingOrder(childCount, childCount - 1));
+    }
 
     /**
      * 更新子View的起始索引和目标索引
      */
     private void updateFromAndTo() {
-        if (Math.abs(mOffsetPercent) >= 1) {
-            for (int i = 0; i < getChildCount(); i++) {
-                View child = getChildAt(i);
-                LayoutParams lp = (LayoutParams) child.getLayoutParams();
-                lp.from = lp.to;
-            }
-            isReordered = false;
-            mOffsetPercent %= 1;
+        if (mEngine.isStepFinished()) {
+            //一帧内可能滑过了多页，每页都要提交一次
+            do {
+                if (isVirtualized()) {
+                    mCurrentPosition = getNextPosition();
+                }
+                mEngine.finishStep();
+                mEngine.updateTargets();
+            } while (mEngine.isStepFinished());
+            float offset = isHorizontal() ? mOffsetX : mOffsetY;
             mOffsetX %= getWidth();
             mOffsetY %= getHeight();
+            mSettleBaseOffset += offset - (isHorizontal() ? mOffsetX : mOffsetY);
         }
+        mEngine.updateTargets();
+        if (isVirtualized()) {
+            rebindChildren();
+        }
+    }
+
+    /**
+     * 把所显示数据和应该显示的数据不匹配的子View重新绑定:
+     * 虚拟化模式下按槽位计算，如从边缘移动到另一侧的子View，在偏移超过一半时才换绑，此时这个子View刚好被中间的子View挡住
+     * 非虚拟化模式下，每个子View固定对应一个数据（跟子View索引一样）
+     */
+    private void rebindChildren() {
+        syncEngineChildren();
+        boolean isVirtualized = isVirtualized();
+        boolean isPassedHalf = Math.abs(mEngine.getOffsetPercent()) > .5F;
+        int nextPosition = getNextPosition();
+        int slotCount = getSlotCount();
         for (int i = 0; i < getChildCount(); i++) {
-            View child = getChildAt(i);
-            LayoutParams lp = (LayoutParams) child.getLayoutParams();
-            if (is5Child()) {
-                switch (lp.from) {
-                    case 0:
-                        lp.to = mOffsetPercent > 0 ? 2 : 1;
-                        break;
-                    case 1:
-                        lp.to = mOffsetPercent > 0 ? 0 : 3;
-                        break;
-                    case 2:
-                        lp.to = mOffsetPercent > 0 ? 4 : 0;
-                        break;
-                    case 3:
-                        lp.to = mOffsetPercent > 0 ? 1 : 4;
-                        break;
-                    case 4:
-                        lp.to = mOffsetPercent > 0 ? 3 : 2;
-                        break;
-                    default:
-                        break;
-                }
+            LayoutParams lp = (LayoutParams) getChildAt(i).getLayoutParams();
+            int position = !isVirtualized ? i : isPassedHalf ? getPositionBySlot(mEngine.getTo(i), slotCount, nextPosition)
+                    : getPositionBySlot(mEngine.getFrom(i), slotCount, mCurrentPosition);
+            if (lp.position != position) {
+                rebindChildAt(i, position, null);
+            }
+        }
+    }
+
+    /**
+     * 给指定的子View重新绑定数据，如果新数据的类型和子View不匹配，则换成对应类型的子View
+     *
+     * @param index    子View索引
+     * @param position 数据索引
+     * @param payload  局部更新的数据，为null时完整绑定
+     */
+    private void rebindChildAt(int index, int position, @Nullable Object payload) {
+        View child = getChildAt(index);
+        LayoutParams lp = (LayoutParams) child.getLayoutParams();
+        int viewType = mAdapter.getItemViewType(position);
+        if (lp.viewType == viewType) {
+            if (payload == null || lp.position != position) {
+                bindView(mAdapter, child, position);
             } else {
-                switch (lp.from) {
-                    case 0:
-                        lp.to = mOffsetPercent > 0 ? 2 : 1;
-                        break;
-                    case 1:
-                        lp.to = mOffsetPercent > 0 ? 0 : 2;
-                        break;
-                    case 2:
-                        lp.to = mOffsetPercent > 0 ? 1 : 0;
-                        break;
-                    default:
-                        break;
-                }
+                mPayloads.clear();
+                mPayloads.add(payload);
+                bindView(mAdapter, child, position, mPayloads);
+                mPayloads.clear();
             }
+            return;
         }
+        View view = obtainView(mAdapter, viewType);
+        bindView(mAdapter, view, position);
+        syncEngineChildren();
+        int from = mEngine.getFrom(index), to = mEngine.getTo(index);
+        removeViewAt(index);
+        mEngine.removeChild(index);
+        restoreChildLayer(child);
+        getRecycledViewPool().putRecycledView(child);
+        addView(view, index);
+        updateChildLayer(view);
+        //继承原来子View的槽位，位移等会在布局时更新
+        mEngine.setFromAndTo(index, from, to);
+    }
+
+    /**
+     * @return 当前滑动方向上，下一个将被选中的数据索引
+     */
+    private int getNextPosition() {
+        return fixPosition(mCurrentPosition + (mEngine.getOffsetPercent() > 0 ? -1 : 1));
+    }
+
+    /**
+     * 根据槽位和选中的数据索引，计算出这个槽位应显示的数据索引
+     *
+     * @param slot      槽位 (即子View的起始槽位或目标槽位)
+     * @param slotCount 槽位数量
+     * @param selected  中间槽位对应的数据索引
+     */
+    private int getPositionBySlot(int slot, int slotCount, int selected) {
+        return fixPosition(selected + PagerLayoutEngine.getRelativeIndex(slot, slotCount));
+    }
+
+    /**
+     * 把数据索引调整到0~mItemCount范围内（首尾相连）
+     */
+    private int fixPosition(int position) {
+        return mItemCount == 0 ? 0 : (position % mItemCount + mItemCount) % mItemCount;
+    }
+
+    /**
+     * 是否虚拟化模式：数据数量超过了子View的上限，子View会被循环复用
+     */
+    private boolean isVirtualized() {
+        return mAdapter != null && mItemCount > mVisibleItemCount;
     }
 
     /**
@@ -544,17 +808,18 @@ public class LitePager extends ViewGroup implements Runnable {
      */
     private void updateOffsetPercent() {
         float oldState = mCurrentState;
-        float oldOffsetPercent = mOffsetPercent;
-        mOffsetPercent = isHorizontal() ? mOffsetX / getWidth() : mOffsetY / getHeight();
+        float oldOffsetPercent = mEngine.getOffsetPercent();
+        float offsetPercent = isHorizontal() ? mOffsetX / getWidth() : mOffsetY / getHeight();
+        mEngine.setOffsetPercent(offsetPercent);
         if (isScrollFinished()) {
             mCurrentState = STATE_IDLE;
-        } else if (mOffsetPercent > oldOffsetPercent) {
+        } else if (offsetPercent > oldOffsetPercent) {
             if (isHorizontal()) {
                 mCurrentState = isBeingDragged ? STATE_DRAGGING_RIGHT : STATE_SETTLING_RIGHT;
             } else {
                 mCurrentState = isBeingDragged ? STATE_DRAGGING_BOTTOM : STATE_SETTLING_BOTTOM;
             }
-        } else if (mOffsetPercent < oldOffsetPercent) {
+        } else if (offsetPercent < oldOffsetPercent) {
             if (isHorizontal()) {
                 mCurrentState = isBeingDragged ? STATE_DRAGGING_LEFT : STATE_SETTLING_LEFT;
             } else {
@@ -562,32 +827,184 @@ public class LitePager extends ViewGroup implements Runnable {
             }
         }
         if (mCurrentState != oldState) {
+            updateChildLayers();
             if (mOnScrollListener != null) {
                 mOnScrollListener.onStateChanged(mCurrentState);
             }
         }
     }
 
+    private boolean isHardwareLayerEnabled;//是否在滑动时给子View开启硬件图层
+    private boolean isChildLayersPromoted;//子View当前是否已经开启了硬件图层
+    private boolean isOverlappingHintApplied;//子View当前是否已经应用了适配器的hasOverlappingRendering
+
+    /**
+     * 开始拖动或调整时给子View开启硬件图层，并应用{@link Adapter#hasOverlappingRendering(View, int)}，静止后全部还原
+     * 这样滑动时改变不透明度、缩放和位移，都只是重新合成图层，不用每一帧都重新绘制子View的内容
+     */
+    private void updateChildLayers() {
+        boolean isMoving = mCurrentState != STATE_IDLE;
+        boolean shouldPromote = isHardwareLayerEnabled && isMoving && isHardwareAccelerated();
+        boolean shouldApplyHint = isMoving && Build.VERSION.SDK_INT >= Build.VERSION_CODES.N;
+        if (shouldPromote != isChildLayersPromoted || shouldApplyHint != isOverlappingHintApplied) {
+            isChildLayersPromoted = shouldPromote;
+            isOverlappingHintApplied = shouldApplyHint;
+            for (int i = 0; i < getChildCount(); i++) {
+                updateChildLayer(getChildAt(i));
+            }
+        }
+    }
+
+    /**
+     * 按当前状态给子View开启或关闭硬件图层，应用或还原hasOverlappingRendering
+     * 已经自己设置过图层的不会改动，内容没有重叠的子View改变不透明度时本来就不需要离屏缓冲，也不用开启
+     */
+    private void updateChildLayer(View child) {
+        LayoutParams lp = (LayoutParams) child.getLayoutParams();
+        if (isOverlappingHintApplied) {
+            if (!lp.hasForcedOverlapping) {
+                forceOverlappingRendering(child, lp, isOverlappingRendering(child, lp));
+            }
+        } else if (lp.hasForcedOverlapping) {
+            restoreOverlappingRendering(child, lp);
+        }
+        if (isChildLayersPromoted) {
+            if (!lp.hasPromotedLayer && child.getLayerType() == LAYER_TYPE_NONE && isOverlappingRendering(child, lp)) {
+                lp.hasPromotedLayer = true;
+                child.setLayerType(LAYER_TYPE_HARDWARE, null);
+            }
+        } else if (lp.hasPromotedLayer) {
+            lp.hasPromotedLayer = false;
+            child.setLayerType(LAYER_TYPE_NONE, null);
+        }
+    }
+
+    /**
+     * 还原由LitePager开启的硬件图层和修改过的hasOverlappingRendering（放进缓存池之前调用）
+     */
+    private void restoreChildLayer(View child) {
+        LayoutParams lp = (LayoutParams) child.getLayoutParams();
+        if (lp.hasForcedOverlapping) {
+            restoreOverlappingRendering(child, lp);
+        }
+        if (lp.hasPromotedLayer) {
+            lp.hasPromotedLayer = false;
+            child.setLayerType(LAYER_TYPE_NONE, null);
+        }
+    }
+
+    /**
+     * 跟子View当前的值不一样时才修改，并记下原来的值，静止后还原
+     */
+    @TargetApi(Build.VERSION_CODES.N)
+    private void forceOverlappingRendering(View child, LayoutParams lp, boolean hasOverlappingRendering) {
+        boolean original = child.getHasOverlappingRendering();
+        if (hasOverlappingRendering != original) {
+            lp.hasForcedOverlapping = true;
+            lp.originalOverlapping = original;
+            child.forceHasOverlappingRendering(hasOverlappingRendering);
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.N)
+    private void restoreOverlappingRendering(View child, LayoutParams lp) {
+        lp.hasForcedOverlapping = false;
+        child.forceHasOverlappingRendering(lp.originalOverlapping);
+    }
+
+    /**
+     * 使用适配器时由{@link Adapter#hasOverlappingRendering(View, int)}决定，否则使用子View自己的设置
+     */
+    private boolean isOverlappingRendering(View child, LayoutParams lp) {
+        if (mAdapter != null && lp.position >= 0 && lp.position < mItemCount) {
+            //noinspection unchecked
+            return mAdapter.hasOverlappingRendering(child, lp.position);
+        }
+        return child.hasOverlappingRendering();
+    }
+
+    private float[] mTouchPoint = new float[2];//点击测试时复用的坐标点
+    private Matrix[] mInverseMatrices;//每个子View的逆矩阵，只在子View变换改变后才重新计算
+    private boolean[] isInverseMatrixDirty;
+    private boolean[] isInverseMatrixNonInvertible;//矩阵不能反转（缩放为0）
+
+    /**
+     * 按最大子View数量分配按索引存放的数组，之后不会再分配内存
+     */
+    private void allocateChildArrays() {
+        //使用适配器时，旧的子View要等动画结束后才会被替换，所以这期间数组也要装得下它们
+        int count = Math.max(fixVisibleItemCount(getChildCount()), mVisibleItemCount);
+        mTempPositions = new int[count];
+        mInverseMatrices = new Matrix[count];
+        isInverseMatrixDirty = new boolean[count];
+        isInverseMatrixNonInvertible = new boolean[count];
+        mChildRects = new RectF[count];
+        mOccluders = new int[count];
+        isChildCulled = new boolean[count];
+        mAppliedTranslations = new float[count];
+        mAppliedScales = new float[count];
+        mAppliedAlphas = new float[count];
+        for (int i = 0; i < count; i++) {
+            mInverseMatrices[i] = new Matrix();
+            mChildRects[i] = new RectF();
+        }
+        invalidateChildTransforms();
+    }
+
+    /**
+     * 子View尺寸改变后（缩放中心跟着变），全部逆矩阵都要重新计算
+     */
+    private void invalidateInverseMatrices() {
+        for (int i = 0; i < isInverseMatrixDirty.length; i++) {
+            isInverseMatrixDirty[i] = true;
+        }
+    }
+
+    /**
+     * 子View的索引或者滑动方向改变后，之前记录的变换都不能用了，下次更新时全部重新设置
+     */
+    private void invalidateChildTransforms() {
+        //NaN跟任何值都不相等
+        Arrays.fill(mAppliedTranslations, Float.NaN);
+        Arrays.fill(mAppliedScales, Float.NaN);
+        Arrays.fill(mAppliedAlphas, Float.NaN);
+        invalidateInverseMatrices();
+    }
+
     /**
-     * @param view   目标view
-     * @param points 坐标点(x, y)
+     * @param index 子View索引
+     * @param x     x轴坐标
+     * @param y     y轴坐标
      * @return 坐标点是否在view范围内
      */
-    private boolean pointInView(View view, float[] points) {
+    private boolean pointInView(int index, float x, float y) {
+        View view = getChildAt(index);
         // 像ViewGroup那样，先对齐一下Left和Top
-        points[0] -= view.getLeft();
-        points[1] -= view.getTop();
-        // 获取View所对应的矩阵
-        Matrix matrix = view.getMatrix();
-        // 如果矩阵有应用过变换
-        if (!matrix.isIdentity()) {
-            // 反转矩阵
-            matrix.invert(matrix);
-            // 映射坐标点
-            matrix.mapPoints(points);
+        mTouchPoint[0] = x - view.getLeft();
+        mTouchPoint[1] = y - view.getTop();
+        Matrix inverseMatrix = mInverseMatrices[index];
+        if (isInverseMatrixDirty[index]) {
+            // 获取View所对应的矩阵，反转到缓存的矩阵中，不会改动View自己的矩阵
+            Matrix matrix = view.getMatrix();
+            if (matrix.isIdentity()) {
+                inverseMatrix.reset();
+                isInverseMatrixNonInvertible[index] = false;
+            } else {
+                isInverseMatrixNonInvertible[index] = !matrix.invert(inverseMatrix);
+            }
+            isInverseMatrixDirty[index] = false;
+        }
+        // 不能反转（比如缩放为0），说明这个View已经看不到了，不能被点中
+        if (isInverseMatrixNonInvertible[index]) {
+            return false;
+        }
+        // 如果矩阵有应用过变换，则映射坐标点
+        if (!inverseMatrix.isIdentity()) {
+            inverseMatrix.mapPoints(mTouchPoint);
         }
         //判断坐标点是否在view范围内
-        return points[0] >= 0 && points[1] >= 0 && points[0] < view.getWidth() && points[1] < view.getHeight();
+        return mTouchPoint[0] >= 0 && mTouchPoint[1] >= 0
+                && mTouchPoint[0] < view.getWidth() && mTouchPoint[1] < view.getHeight();
     }
 
     private float mInterceptLastX, mInterceptLastY;
@@ -600,6 +1017,7 @@ public class LitePager extends ViewGroup implements Runnable {
                 mInterceptLastX = x;
                 mInterceptLastY = y;
                 getParent().requestDisallowInterceptTouchEvent(true);
+                suspendAutoScroll();
                 break;
             case MotionEvent.ACTION_MOVE:
                 float offsetX = Math.abs(x - mInterceptLastX);
@@ -614,7 +1032,13 @@ public class LitePager extends ViewGroup implements Runnable {
                 getParent().requestDisallowInterceptTouchEvent(false);
                 break;
         }
-        return super.dispatchTouchEvent(event);
+        boolean handled = super.dispatchTouchEvent(event);
+        int action = event.getAction();
+        //松手后没有播放调整动画（比如只是点了一下），马上恢复轮播，否则等到静止后再恢复
+        if ((action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) && !mSettleAnimator.isRunning()) {
+            resumeAutoScroll();
+        }
+        return handled;
     }
 
     @Override
@@ -634,10 +1058,8 @@ public class LitePager extends ViewGroup implements Runnable {
             case MotionEvent.ACTION_DOWN:
                 mLastX = mDownX = x;
                 mLastY = mDownY = y;
-                if (isSettling()) {
-                    return false;
-                }
-                abortAnimation();
+                //正在调整时按下，直接拦截（子View还在移动，不应该收到点击），由onTouchEvent决定是拖动还是点击
+                isSettleTouched = mSettleAnimator.isRunning();
                 break;
             case MotionEvent.ACTION_MOVE:
                 if (isAnotherActionDown) {
@@ -661,9 +1083,11 @@ public class LitePager extends ViewGroup implements Runnable {
                     break;
                 }
                 resetDragFlag();
-                return handleActionUp(x, y);
+                boolean handled = handleActionUp(x, y);
+                performPendingUpdates();
+                return handled;
         }
-        return isBeingDragged;
+        return isBeingDragged || isSettleTouched;
     }
 
     private void resetDragFlag() {
@@ -679,32 +1103,47 @@ public class LitePager extends ViewGroup implements Runnable {
      * @return 如果有，则返回这个子View，否则空
      */
     private View findHitView(float x, float y) {
-        for (int index = getChildCount() - 1; index >= 0; index--) {
-            View child = getChildAt(index);
-            if (pointInView(child, new float[]{x, y})) {
-                return child;
+        boolean traced = TraceSection.begin(TraceSection.FIND_HIT_VIEW);
+        View hitView = null;
+        int childCount = getChildCount();
+        //从最上层的开始找
+        for (int i = childCount - 1; i >= 0; i--) {
+            int index = getChildDrawingOrder(childCount, i);
+            if (pointInView(index, x, y)) {
+                hitView = getChildAt(index);
+                break;
             }
         }
-        return null;
+        TraceSection.end(traced);
+        return hitView;
     }
 
     /**
      * 处理手指松开的事件
      */
     private boolean handleActionUp(float x, float y) {
-        float offsetX = x - mDownX;
-        float offsetY = y - mDownY;
-        //判断是否点击手势
-        if (Math.abs(offsetX) < mTouchSlop && Math.abs(offsetY) < mTouchSlop) {
+        boolean isTap = !isTouchSlopExceeded(x, y);
+        if (isSettleTouched) {
+            isSettleTouched = false;
+            //调整的过程中点了一下：点中了子View就从当前的位置和速率转向它，没点中就让动画继续
+            if (isTap) {
+                View hitView = findHitView(x, y);
+                if (hitView != null) {
+                    setSelection(getChildSlot(indexOfChild(hitView)));
+                }
+                return true;
+            }
+        }
+        //判断是否点击手势，还没停在某一页上时（如拖到一半）不算点击
+        if (isScrollFinished() && isTap) {
             //查找被点击的子View
             View hitView = findHitView(x, y);
             if (hitView != null) {
-                if (indexOfChild(hitView) == (is5Child() ? 4 : 2)) {
+                if (hitView == getSelectedChild()) {
                     //点击第一个子view不用播放动画，直接不拦截
                     return false;
                 } else {
-                    LayoutParams lp = (LayoutParams) hitView.getLayoutParams();
-                    setSelection(lp.from);
+                    setSelection(getChildSlot(indexOfChild(hitView)));
                     //拦截ACTION_UP事件，内部消费
                     return true;
                 }
@@ -715,16 +1154,42 @@ public class LitePager extends ViewGroup implements Runnable {
         return false;
     }
 
+    /**
+     * @return 从按下的位置开始，移动的距离是否超过了阈值
+     */
+    private boolean isTouchSlopExceeded(float x, float y) {
+        return Math.abs(x - mDownX) >= mTouchSlop || Math.abs(y - mDownY) >= mTouchSlop;
+    }
+
     /**
      * 判断是否滚动完成
      */
     private boolean isScrollFinished() {
-        return mOffsetPercent % 1 == 0;
+        return mEngine.getOffsetPercent() % 1 == 0;
     }
 
+    private boolean hasFixedItemSize;//子View的尺寸是否固定（不会随内容改变）
+    private boolean isMeasureCacheValid;
+    private int mLastWidthMeasureSpec, mLastHeightMeasureSpec;//上次完整测量时的参数
+    private int mLastMeasuredWidth, mLastMeasuredHeight;//上次完整测量的结果
+    private int mLastMeasuredChildCount;
+
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        boolean traced = TraceSection.begin(TraceSection.ON_MEASURE);
+        if (hasFixedItemSize && isMeasureCacheValid && widthMeasureSpec == mLastWidthMeasureSpec
+                && heightMeasureSpec == mLastHeightMeasureSpec && getChildCount() == mLastMeasuredChildCount) {
+            //子View尺寸固定，并且参数和数量都没变，LitePager自己的尺寸也不会变，
+            //只需要测量新绑定或者内容改变了的子View
+            measureDirtyChildren(widthMeasureSpec, heightMeasureSpec);
+            setMeasuredDimension(mLastMeasuredWidth, mLastMeasuredHeight);
+            TraceSection.end(traced);
+            return;
+        }
         measureChildren(widthMeasureSpec, heightMeasureSpec);
+        for (int i = 0; i < getChildCount(); i++) {
+            ((LayoutParams) getChildAt(i).getLayoutParams()).isMeasureDirty = false;
+        }
 
         int widthSize = MeasureSpec.getSize(widthMeasureSpec);
         int widthMode = MeasureSpec.getMode(widthMeasureSpec);
@@ -769,445 +1234,146 @@ public class LitePager extends ViewGroup implements Runnable {
         }
 
         setMeasuredDimension(width, height);
+        mLastWidthMeasureSpec = widthMeasureSpec;
+        mLastHeightMeasureSpec = heightMeasureSpec;
+        mLastMeasuredWidth = width;
+        mLastMeasuredHeight = height;
+        mLastMeasuredChildCount = childCount;
+        isMeasureCacheValid = true;
+        TraceSection.end(traced);
     }
 
-    @Override
-    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+    /**
+     * 只测量刚添加、重新绑定过或者自己请求了重新布局的子View
+     */
+    private void measureDirtyChildren(int widthMeasureSpec, int heightMeasureSpec) {
         for (int i = 0; i < getChildCount(); i++) {
             View child = getChildAt(i);
-            int baseLine = getBaselineByChild(child);
-            updateChildParamsAndLayout(child, baseLine);
+            LayoutParams lp = (LayoutParams) child.getLayoutParams();
+            if (child.getVisibility() != GONE && (lp.isMeasureDirty || child.isLayoutRequested())) {
+                measureChild(child, widthMeasureSpec, heightMeasureSpec);
+                lp.isMeasureDirty = false;
+            }
         }
     }
 
-    /**
-     * 根据当前滑动距离计算出目标子View的基准线
-     */
-    private int getBaselineByChild(View child) {
-        int baseLine;
-        if (is5Child()) {
-            baseLine = isHorizontal() ? getHorizontalBaseLineBy5Child(child) : getVerticalBaseLineBy5Child(child);
-            updateAlphaAndScaleBy5Child(child);
-        } else {
-            baseLine = isHorizontal() ? getHorizontalBaseLine(child) : getVerticalBaseLine(child);
-            updateAlphaAndScale(child);
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        boolean traced = TraceSection.begin(TraceSection.ON_LAYOUT);
+        long startTime = mPerformanceStats == null ? 0 : System.nanoTime();
+        for (int i = 0; i < getChildCount(); i++) {
+            layoutChild(getChildAt(i));
         }
-        return baseLine;
-    }
-
-    private int getHorizontalBaseLine(View child) {
-        int width = getWidth();
-        int baseLineLeft = width / 4;
-        int baseLineCenterX = width / 2;
-        int baseLineRight = width - baseLineLeft;
-        return getBaseLine(child, baseLineLeft, baseLineCenterX, baseLineRight);
-    }
-
-    private int getVerticalBaseLine(View child) {
-        int height = getHeight();
-        int baseLineTop = height / 4;
-        int baseLineCenterY = height / 2;
-        int baseLineBottom = height - baseLineTop;
-        return getBaseLine(child, baseLineTop, baseLineCenterY, baseLineBottom);
+        invalidateInverseMatrices();
+        updateChildOrder();
+        updateChildTransforms();
+        if (mPerformanceStats != null) {
+            mPerformanceStats.onLayout(System.nanoTime() - startTime);
+        }
+        TraceSection.end(traced);
     }
 
     /**
-     * 根据当前滑动距离计算出目标子View的基准线
-     *
-     * @param child  目标子View
-     * @param start  四等份中的第一条线
-     * @param middle 四等份中的第二条线
-     * @param end    四等份中的第三条线
-     * @return 当前的基准线
+     * 根据当前滑动距离，更新全部子View的位移、缩放比例和不透明度
      */
-    private int getBaseLine(View child, int start, int middle, int end) {
-        int baseLine = 0;
-
-        LayoutParams lp = (LayoutParams) child.getLayoutParams();
-        switch (lp.from) {
-            case 0:
-                switch (lp.to) {
-                    case 1:
-                        baseLine = start + (int) ((end - start) * -mOffsetPercent);
-                        break;
-                    case 2:
-                        baseLine = start + (int) ((middle - start) * mOffsetPercent);
-                        break;
-                    default:
-                        baseLine = start;
-                        break;
-                }
-                break;
-            case 1:
-                switch (lp.to) {
-                    case 0:
-                        baseLine = end + (int) ((end - start) * -mOffsetPercent/*因为是反方向*/);
-                        break;
-                    case 2:
-                        baseLine = end + (int) ((end - middle) * mOffsetPercent);
-                        break;
-                    default:
-                        baseLine = end;
-                        break;
-                }
-                break;
-            case 2:
-                switch (lp.to) {
-                    case 0:
-                        baseLine = middle + (int) ((middle - start) * mOffsetPercent);
-                        break;
-                    case 1:
-                        baseLine = middle + (int) ((end - middle) * mOffsetPercent);
-                        break;
-                    default:
-                        baseLine = middle;
-                        break;
-                }
-                break;
-            default:
-                break;
+    private void updateChildTransforms() {
+        syncEngineChildren();
+        mEngine.updateTransforms();
+        for (int i = 0; i < getChildCount(); i++) {
+            if (updateChildTransform(i, getChildAt(i), mEngine.getBaseLine(i), mEngine.getScale(i), mEngine.getAlpha(i))) {
+                isInverseMatrixDirty[i] = true;
+            }
         }
-        return baseLine;
     }
 
     /**
-     * 跟据子View的起始索引和目标索引来更新不透明度和缩放比例
-     *
-     * @param child 目标子View
+     * 把缩放比例和不透明度同步到引擎中
      */
-    private void updateAlphaAndScale(View child) {
-        LayoutParams lp = (LayoutParams) child.getLayoutParams();
-        switch (lp.from) {
-            case 0:
-                switch (lp.to) {
-                    case 0:
-                    case 1:
-                        setAsBottom(child);
-                        lp.alpha = mMiddleAlpha;
-                        lp.scale = mMiddleScale;
-                        break;
-                    case 2:
-                        float alphaProgress;
-                        if (mOffsetPercent > .5F) {
-                            alphaProgress = (mOffsetPercent - .5F) * 2;
-                        } else {
-                            alphaProgress = 0;
-                        }
-                        lp.alpha = mMiddleAlpha + (mTopAlpha - mMiddleAlpha) * alphaProgress;
-                        lp.scale = mMiddleScale + (mTopScale - mMiddleScale) * mOffsetPercent;
-                        break;
-                }
-                break;
-            case 1:
-                switch (lp.to) {
-                    case 0:
-                    case 1:
-                        setAsBottom(child);
-                        lp.alpha = mMiddleAlpha;
-                        lp.scale = mMiddleScale;
-                        break;
-                    case 2:
-                        float alphaProgress;
-                        //要在后半段才开始改变透明度
-                        if (/*因为是向左边移动，此时Progress是负数*/-mOffsetPercent > .5F) {
-                            alphaProgress = (-mOffsetPercent - .5F) * 2;
-                        } else {
-                            alphaProgress = 0;
-                        }
-                        lp.alpha = mMiddleAlpha + (mTopAlpha - mMiddleAlpha) * alphaProgress;
-                        lp.scale = mMiddleScale + (mTopScale - mMiddleScale) * -mOffsetPercent;//因为mOffsetProgress此时是负数
-                        break;
-                }
-                break;
-            case 2:
-                float alphaProgress;
-                float absOffsetPercent = Math.abs(mOffsetPercent);
-                //因为现在是在中间，所以要在前半段就改变透明度
-                if (absOffsetPercent < .5F) {
-                    alphaProgress = absOffsetPercent * 2;
-                } else {
-                    //后半段已经不需要了
-                    alphaProgress = 1F;
-                }
-                lp.alpha = mTopAlpha - (mTopAlpha - mMiddleAlpha) * alphaProgress;
-                lp.scale = mTopScale - (mTopScale - mMiddleScale) * Math.abs(mOffsetPercent);
-                break;
-        }
+    private void updateEngineStyle() {
+        mEngine.setScales(mTopScale, mMiddleScale, mBottomScale);
+        mEngine.setAlphas(mTopAlpha, mMiddleAlpha, mBottomAlpha);
     }
 
     /**
-     * 把目标子View放置到视图层级最底部
+     * 缩放比例或不透明度改变后，重新计算槽位表并更新子View
      */
-    private void setAsBottom(View child) {
-        exchangeOrder(indexOfChild(child), 0);
-    }
-
-    private int getHorizontalBaseLineBy5Child(View child) {
-        return getBaseLineBy5Child(child, getWidth() / 6);
+    private void invalidateSlotTable() {
+        updateEngineStyle();
+        updateChildTransforms();
     }
 
-    private int getVerticalBaseLineBy5Child(View child) {
-        return getBaseLineBy5Child(child, getHeight() / 6);
-    }
-
-    private int getBaseLineBy5Child(View child, int itemDistance) {
-        int baseLine = 0;
-        int child0Line, child1Line, child2Line, child3Line, child4Line;
-        child0Line = itemDistance;
-        child2Line = itemDistance * 2;
-        child4Line = itemDistance * 3;
-        child3Line = itemDistance * 4;
-        child1Line = itemDistance * 5;
-        LayoutParams lp = (LayoutParams) child.getLayoutParams();
-        int offset = (int) (itemDistance * mOffsetPercent);
-        switch (lp.from) {
-            case 0:
-                switch (lp.to) {
-                    case 1:
-                        baseLine = child0Line - offset * 4;
-                        break;
-                    case 2:
-                        baseLine = child0Line + offset;
-                        break;
-                    default:
-                        baseLine = child0Line;
-                        break;
-                }
-                break;
-            case 1:
-                switch (lp.to) {
-                    case 0:
-                        baseLine = child1Line - offset * 4;
-                        break;
-                    case 3:
-                        baseLine = child1Line + offset;
-                        break;
-                    default:
-                        baseLine = child1Line;
-                        break;
-                }
-                break;
-            case 2:
-                switch (lp.to) {
-                    case 0:
-                    case 4:
-                        baseLine = child2Line + offset;
-                        break;
-                    default:
-                        baseLine = child2Line;
-                        break;
-                }
-                break;
-            case 3:
-                switch (lp.to) {
-                    case 1:
-                    case 4:
-                        baseLine = child3Line + offset;
-                        break;
-                    default:
-                        baseLine = child3Line;
-                        break;
-                }
-                break;
-            case 4:
-                switch (lp.to) {
-                    case 2:
-                    case 3:
-                        baseLine = child4Line + offset;
-                        break;
-                    default:
-                        baseLine = child4Line;
-                        break;
-                }
-                break;
-            default:
-                break;
-        }
-        return baseLine;
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        mEngine.setSize(isHorizontal() ? w : h);
+        //尺寸从0变成非0时，可见区域才不为空
+        updateVisibleToUser();
     }
 
     /**
-     * 跟据子View的起始索引和目标索引来更新不透明度和缩放比例
-     *
-     * @param child 目标子View
+     * @return 当前是否水平方向
      */
-    private void updateAlphaAndScaleBy5Child(View child) {
-        LayoutParams lp = (LayoutParams) child.getLayoutParams();
-        switch (lp.from) {
-            case 0:
-                updateAlphaAndScaleBy5Child(child, lp, mOffsetPercent);
-                break;
-            case 1:
-                updateAlphaAndScaleBy5Child(child, lp, -mOffsetPercent);
-                break;
-            case 2:
-                updateAlphaAndScale2(lp, mOffsetPercent);
-                break;
-            case 3:
-                //刚好跟上面相反，因为当上面变得更不透明时，它会变得更透明
-                updateAlphaAndScale2(lp, -mOffsetPercent);
-                break;
-            case 4:
-                float absOffsetPercent = Math.abs(mOffsetPercent);
-                float alphaProgress;
-                //因为现在是在中间，所以要在前半段就改变透明度
-                if (absOffsetPercent < .5F) {
-                    alphaProgress = absOffsetPercent * 2;
-                } else {
-                    //后半段已经不需要了
-                    alphaProgress = 1F;
-                }
-                lp.alpha = mTopAlpha - (mTopAlpha - mMiddleAlpha) * alphaProgress;
-                lp.scale = mTopScale - (mTopScale - mMiddleScale) * Math.abs(mOffsetPercent);
-                break;
-        }
-    }
-
-    private void updateAlphaAndScale2(LayoutParams lp, float offsetPercent) {
-        float alphaProgress;
-        if (Math.abs(offsetPercent) > .5F) {
-            alphaProgress = (Math.abs(offsetPercent) - .5F) * 2;
-        } else {
-            alphaProgress = 0;
-        }
-        switch (lp.to) {
-            case 0:
-            case 1:
-                lp.alpha = mMiddleAlpha + (mMiddleAlpha - mBottomAlpha) * -alphaProgress;
-                lp.scale = mMiddleScale + (mMiddleScale - mBottomScale) * offsetPercent;
-                break;
-            case 4:
-                lp.alpha = mMiddleAlpha + (mTopAlpha - mMiddleAlpha) * alphaProgress;
-                lp.scale = mMiddleScale + (mTopScale - mMiddleScale) * offsetPercent;
-                break;
-            default:
-                lp.alpha = mMiddleAlpha;
-                lp.scale = mMiddleScale;
-        }
-    }
-
-    private void updateAlphaAndScaleBy5Child(View child, LayoutParams lp, float offsetPercent) {
-        switch (lp.to) {
-            case 0:
-            case 1:
-                setAsBottomBy5Child(child);
-                lp.alpha = mBottomAlpha;
-                lp.scale = mBottomScale;
-                break;
-            default:
-                float alphaProgress;
-                if (offsetPercent > .5F) {
-                    alphaProgress = (offsetPercent - .5F) * 2;
-                } else {
-                    alphaProgress = 0;
-                }
-                lp.alpha = mBottomAlpha + (mMiddleAlpha - mBottomAlpha) * alphaProgress;
-                lp.scale = mBottomScale + (mMiddleScale - mBottomScale) * offsetPercent;
-                break;
-        }
+    private boolean isHorizontal() {
+        return mOrientation == ORIENTATION_HORIZONTAL;
     }
 
     /**
-     * 把目标子View放置到视图层级最底部
+     * @return 槽位数量，子View数量不足时，空出来的槽位也要算上（至少3个，并且是奇数）
      */
-    private void setAsBottomBy5Child(View target) {
-        //先确定现在在哪个位置
-        int startIndex = indexOfChild(target);
-        //计算一共需要几次交换，就可到达最下面
-        for (int i = startIndex; i >= 0; i--) {
-            //更新索引
-            int fromIndex = indexOfChild(target);
-            if (fromIndex == 0) {
-                break;
-            }
-            //目标是它的下层
-            int toIndex = fromIndex - 1;
-            //获取需要交换位置的两个子View
-            View from = target;
-            View to = getChildAt(toIndex);
-
-            //先把它们拿出来
-            detachViewFromParent(fromIndex);
-            detachViewFromParent(toIndex);
-
-            //再放回去，但是放回去的位置(索引)互换了
-            attachViewToParent(from, toIndex, from.getLayoutParams());
-            attachViewToParent(to, fromIndex, to.getLayoutParams());
-        }
-        //刷新
-        invalidate();
+    private int getSlotCount() {
+        return fixVisibleItemCount(getChildCount());
     }
 
+    private float[] mAppliedTranslations;//每个子View上次设置的位移
+    private float[] mAppliedScales;//每个子View上次设置的缩放比例
+    private float[] mAppliedAlphas;//每个子View上次设置的不透明度
+
     /**
-     * 交换子View的层级顺序
+     * 更新子View的不透明度、缩放比例，并根据基准线来设置位移
+     * 跟上次设置的值一样的就跳过，避免不必要的重绘（比如拖动时两边没有移动槽位的子View）
      *
-     * @param fromIndex 原子View索引
-     * @param toIndex   目标子View索引
+     * @return 缩放或位移是否改变了（需要重新计算逆矩阵）
      */
-    private void exchangeOrder(int fromIndex, int toIndex) {
-        if (fromIndex == toIndex || fromIndex >= getChildCount() || toIndex >= getChildCount()) {
-            return;
+    private boolean updateChildTransform(int index, View child, float baseLine, float scale, float alpha) {
+        if (mAppliedAlphas[index] != alpha) {
+            mAppliedAlphas[index] = alpha;
+            child.setAlpha(alpha);
         }
-        if (fromIndex > toIndex) {
-            int temp = fromIndex;
-            fromIndex = toIndex;
-            toIndex = temp;
+        boolean isMatrixChanged = false;
+        if (mAppliedScales[index] != scale) {
+            mAppliedScales[index] = scale;
+            child.setScaleX(scale);
+            child.setScaleY(scale);
+            isMatrixChanged = true;
         }
-
-        View from = getChildAt(fromIndex);
-        View to = getChildAt(toIndex);
-
-        detachViewFromParent(toIndex);
-        detachViewFromParent(fromIndex);
-
-        attachViewToParent(to, fromIndex, to.getLayoutParams());
-        attachViewToParent(from, toIndex, from.getLayoutParams());
-        invalidate();
-    }
-
-    /**
-     * @return 当前是否水平方向
-     */
-    private boolean isHorizontal() {
-        return mOrientation == ORIENTATION_HORIZONTAL;
-    }
-
-    private boolean is5Child() {
-        return getChildCount() > 3;
+        //子View都布局在中间，基准线离中间的距离就是位移
+        float translation = baseLine - (isHorizontal() ? getWidth() : getHeight()) / 2;
+        if (mAppliedTranslations[index] != translation) {
+            mAppliedTranslations[index] = translation;
+            if (isHorizontal()) {
+                child.setTranslationX(translation);
+                child.setTranslationY(0);
+            } else {
+                child.setTranslationX(0);
+                child.setTranslationY(translation);
+            }
+            isMatrixChanged = true;
+        }
+        return isMatrixChanged;
     }
 
     /**
-     * 更新子View的不透明度、缩放比例、坐标位置，并布局
+     * 把子View布局在中间，滑动时通过位移来改变位置
      */
-    private void updateChildParamsAndLayout(View child, int baseLine) {
+    private void layoutChild(View child) {
         LayoutParams lp = (LayoutParams) child.getLayoutParams();
 
-        child.setAlpha(lp.alpha);
-        child.setScaleX(lp.scale);
-        child.setScaleY(lp.scale);
-
-        int childWidth;
-        int childHeight;
-
-        if (child.getWidth() > 0 && child.getHeight() > 0) {
-            childWidth = child.getWidth();
-            childHeight = child.getHeight();
-        } else {
-            //第一次布局
-            childWidth = child.getMeasuredWidth();
-            childHeight = child.getMeasuredHeight();
-        }
+        int childWidth = child.getMeasuredWidth();
+        int childHeight = child.getMeasuredHeight();
 
         int left, top, right, bottom;
-        if (isHorizontal()) {
-            int baseLineCenterY = getHeight() / 2;
-            left = baseLine - childWidth / 2;
-            top = baseLineCenterY - childHeight / 2;
-        } else {
-            int baseLineCenterX = getWidth() / 2;
-            left = baseLineCenterX - childWidth / 2;
-            top = baseLine - childHeight / 2;
-        }
+        left = getWidth() / 2 - childWidth / 2;
+        top = getHeight() / 2 - childHeight / 2;
         right = left + childWidth;
         bottom = top + childHeight;
 
@@ -1221,22 +1387,15 @@ public class LitePager extends ViewGroup implements Runnable {
     @Override
     public void addView(View child, int index, ViewGroup.LayoutParams params) {
         int childCount = getChildCount();
-        if (childCount > 4) {
-            throw new IllegalStateException("LitePager can only contain 5 child!");
-        }
-        LayoutParams lp = params instanceof LayoutParams ? (LayoutParams) params : new LayoutParams(params);
-        lp.from = index == -1 ? childCount : index;
-        if (childCount < 2) {
-            lp.alpha = mMiddleAlpha;
-            lp.scale = mMiddleScale;
-        } else if (childCount < 4) {
-            lp.alpha = mBottomAlpha;
-            lp.scale = mBottomScale;
-        } else {
-            lp.alpha = mTopAlpha;
-            lp.scale = mTopScale;
+        if (childCount >= mVisibleItemCount) {
+            throw new IllegalStateException("LitePager can only contain " + mVisibleItemCount + " child!");
         }
+        syncEngineChildren();
+        int position = index == -1 ? childCount : index;
+        mEngine.insertChild(position, position);
+        invalidateChildTransforms();
         super.addView(child, index, params);
+        ((LayoutParams) child.getLayoutParams()).isMeasureDirty = true;
     }
 
     @Override
@@ -1257,36 +1416,114 @@ public class LitePager extends ViewGroup implements Runnable {
     @Override
     protected void onAttachedToWindow() {
         super.onAttachedToWindow();
-        if (mAutoScrollEnable) {
-            run();
-        }
+        isAttached = true;
+        getViewTreeObserver().addOnScrollChangedListener(mScrollChangedListener);
+        getViewTreeObserver().addOnPreDrawListener(mPreDrawListener);
+        updateVisibleToUser();
     }
 
     @Override
     protected void onDetachedFromWindow() {
         super.onDetachedFromWindow();
-        if (mAutoScrollEnable) {
-            removeCallbacks(this);
+        isAttached = false;
+        getViewTreeObserver().removeOnScrollChangedListener(mScrollChangedListener);
+        getViewTreeObserver().removeOnPreDrawListener(mPreDrawListener);
+        flushDragMove();
+        updateVisibleToUser();
+        //重新添加到窗口上时，从头开始计时
+        mAutoScrollRemaining = -1;
+    }
+
+    @Override
+    protected void onVisibilityChanged(@NonNull View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        //自身或者任意一个父View的可见性改变都会回调
+        updateVisibleToUser();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        //被其他Activity覆盖、退到后台或者窗口被隐藏
+        updateVisibleToUser();
+    }
+
+    /**
+     * 检查用户能不能看到，看不到时暂停自动轮播，并且直接结束正在播放的调整动画，
+     * 重新看到时，按暂停时剩余的间隔继续轮播
+     */
+    private void updateVisibleToUser() {
+        boolean isVisible = isAttached && getWindowVisibility() == VISIBLE && isShown()
+                && getGlobalVisibleRect(mVisibleRect);
+        if (isVisibleToUser != isVisible) {
+            isVisibleToUser = isVisible;
+            if (!isVisible) {
+                mSettleAnimator.end();
+            }
+            updateAutoScroll();
         }
     }
 
+    /**
+     * 自动轮播，由{@link AutoScrollScheduler}在到期的那一帧调用
+     */
     @Override
     public void run() {
-        if (mAutoScrollOrientation == SCROLL_ORIENTATION_LEFT) {
-            setSelection(is5Child() ? 2 : 0);
-        } else {
-            setSelection(is5Child() ? 3 : 1);
+        //选中紧挨着中间的槽位
+        int slotCount = getSlotCount();
+        setSelection(mAutoScrollOrientation == SCROLL_ORIENTATION_LEFT ? slotCount - 3 : slotCount - 2);
+    }
+
+    /**
+     * 用户开始操作，暂停自动轮播，避免跟用户抢
+     */
+    private void suspendAutoScroll() {
+        if (!isAutoScrollSuspended) {
+            isAutoScrollSuspended = true;
+            updateAutoScroll();
         }
-        if (mAutoScrollEnable) {
-            postDelayed(this, mAutoScrollInterval);
+    }
+
+    /**
+     * 用户操作结束并且已经静止，重新等一个完整的间隔后再轮播
+     */
+    private void resumeAutoScroll() {
+        if (isAutoScrollSuspended) {
+            isAutoScrollSuspended = false;
+            mAutoScrollRemaining = -1;
+            updateAutoScroll();
+        }
+    }
+
+    /**
+     * 根据当前状态开始或暂停自动轮播：
+     * 开始时，如果之前暂停过，就按剩余的间隔继续，否则等一个完整的间隔
+     * 暂停时记录下剩余的间隔
+     */
+    private void updateAutoScroll() {
+        AutoScrollScheduler scheduler = AutoScrollScheduler.getInstance();
+        boolean shouldRun = mAutoScrollEnable && isVisibleToUser && !isAutoScrollSuspended;
+        if (shouldRun == scheduler.isScheduled(this)) {
+            return;
+        }
+        long now = SystemClock.uptimeMillis();
+        if (shouldRun) {
+            long delay = mAutoScrollRemaining < 0 ? mAutoScrollInterval : Math.min(mAutoScrollRemaining, mAutoScrollInterval);
+            mAutoScrollRemaining = -1;
+            scheduler.schedule(this, now + delay);
+        } else {
+            //关闭轮播或者被用户操作打断时不用记录，恢复时重新计时
+            mAutoScrollRemaining = mAutoScrollEnable && !isAutoScrollSuspended ? Math.max(mAutoScrollTime - now, 0) : -1;
+            scheduler.remove(this);
         }
     }
 
     private boolean mPostOnAnimationEnd;
     private Adapter mTempAdapter;
+    private DiffResult<?> mPendingDiffResult;//等待静止后再应用的列表差异
 
     private void setAdapterInternal(Adapter adapter) {
-        if (mAnimator != null && mAnimator.isRunning()) {
+        if (mSettleAnimator.isRunning()) {
             mTempAdapter = adapter;
             mPostOnAnimationEnd = true;
         } else {
@@ -1294,22 +1531,306 @@ public class LitePager extends ViewGroup implements Runnable {
         }
     }
 
+    private List<View> mScrapViews = new ArrayList<>();
+
     private void updateAdapterDataNow(Adapter adapter) {
-        removeAllViews();
-        for (int i = 0; i < adapter.getItemCount(); i++) {
-            View view = adapter.onCreateView(this);
-            //noinspection unchecked
-            adapter.onBindView(view, i);
+        boolean traced = TraceSection.begin(TraceSection.UPDATE_ADAPTER_DATA);
+        mItemCount = adapter.getItemCount();
+        //数据数量超过上限时，只创建固定数量的子View，滑动时循环复用
+        int childCount = Math.min(mItemCount, mVisibleItemCount);
+        mCurrentPosition = fixPosition(mCurrentPosition);
+        //先把现有的子View都拿出来，绑定新数据时优先复用它们，不够的话再从缓存池中取
+        mScrapViews.clear();
+        for (int i = 0; i < getChildCount(); i++) {
+            mScrapViews.add(getChildAt(i));
+        }
+        detachAllViewsFromParent();
+        for (int i = 0; i < childCount; i++) {
+            //非虚拟化模式下，每个子View固定对应一个数据
+            int position = mItemCount > mVisibleItemCount ? getPositionBySlot(i, childCount, mCurrentPosition) : i;
+            int viewType = adapter.getItemViewType(position);
+            View view = takeScrapView(viewType);
+            if (view != null) {
+                bindView(adapter, view, position);
+                attachViewToParent(view, i, view.getLayoutParams());
+            } else {
+                view = obtainView(adapter, viewType);
+                bindView(adapter, view, position);
+                addView(view);
+            }
+        }
+        //用不上的子View放进缓存池
+        for (int i = 0; i < mScrapViews.size(); i++) {
+            View view = mScrapViews.get(i);
+            removeDetachedView(view, false);
+            restoreChildLayer(view);
+            getRecycledViewPool().putRecycledView(view);
+        }
+        mScrapViews.clear();
+        for (int i = 0; i < getChildCount(); i++) {
+            updateChildLayer(getChildAt(i));
+        }
+        mEngine.resetChildren(getChildCount());
+        invalidateChildTransforms();
+        requestLayout();
+        invalidate();
+        TraceSection.end(traced);
+    }
+
+    /**
+     * 从刚拿出来的子View中找出指定类型的
+     */
+    private View takeScrapView(int viewType) {
+        for (int i = 0; i < mScrapViews.size(); i++) {
+            View view = mScrapViews.get(i);
+            if (((LayoutParams) view.getLayoutParams()).viewType == viewType) {
+                return mScrapViews.remove(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取指定类型的子View，优先从缓存池中取，没有的话才创建
+     */
+    private View obtainView(Adapter adapter, int viewType) {
+        View view = getRecycledViewPool().getRecycledView(viewType);
+        if (view == null) {
+            boolean traced = TraceSection.begin(TraceSection.CREATE_VIEW);
+            view = adapter.onCreateView(this, viewType);
+            TraceSection.end(traced);
+            if (mPerformanceStats != null) {
+                mPerformanceStats.mCreateCount++;
+            }
             ViewGroup.LayoutParams lp = view.getLayoutParams();
-            if (lp != null) {
-                if (!(lp instanceof LayoutParams)) {
-                    view.setLayoutParams(new LayoutParams(lp));
-                }
+            if (lp == null) {
+                view.setLayoutParams(generateDefaultLayoutParams());
+            } else if (!(lp instanceof LayoutParams)) {
+                view.setLayoutParams(new LayoutParams(lp));
+            }
+            ((LayoutParams) view.getLayoutParams()).viewType = viewType;
+        }
+        return view;
+    }
+
+    private List<Object> mPayloads = new ArrayList<>(1);
+
+    private void bindView(Adapter adapter, View view, int position) {
+        bindView(adapter, view, position, Collections.emptyList());
+    }
+
+    private void bindView(Adapter adapter, View view, int position, List<Object> payloads) {
+        boolean traced = TraceSection.begin(TraceSection.BIND_VIEW);
+        //noinspection unchecked
+        adapter.onBindView(view, position, payloads);
+        TraceSection.end(traced);
+        if (mPerformanceStats != null) {
+            mPerformanceStats.mBindCount++;
+        }
+        LayoutParams lp = (LayoutParams) view.getLayoutParams();
+        lp.position = position;
+        lp.isMeasureDirty = true;
+        if (isOverlappingHintApplied) {
+            //换了数据，按新数据重新应用
+            if (lp.hasForcedOverlapping) {
+                restoreOverlappingRendering(view, lp);
+            }
+            updateChildLayer(view);
+        }
+    }
+
+    /**
+     * 单个数据内容改变，只重新绑定显示这个数据的子View
+     */
+    private void onItemChanged(int position, @Nullable Object payload) {
+        for (int i = 0; i < getChildCount(); i++) {
+            LayoutParams lp = (LayoutParams) getChildAt(i).getLayoutParams();
+            if (lp.position == position) {
+                rebindChildAt(i, position, payload);
             }
-            addView(view);
         }
     }
 
+    /**
+     * 插入了单个数据，已显示的数据索引往后移，然后只重新绑定受影响的槽位
+     */
+    private void onItemInserted(int position) {
+        if (!canUpdatePartially()) {
+            return;
+        }
+        for (int i = 0; i < getChildCount(); i++) {
+            LayoutParams lp = (LayoutParams) getChildAt(i).getLayoutParams();
+            if (lp.position >= position) {
+                lp.position++;
+            }
+        }
+        //保持当前选中的数据不变
+        if (mCurrentPosition >= position) {
+            mCurrentPosition++;
+        }
+        rebindChildren();
+    }
+
+    /**
+     * 移除了单个数据，已显示的数据索引往前移，然后只重新绑定受影响的槽位
+     */
+    private void onItemRemoved(int position) {
+        if (!canUpdatePartially()) {
+            return;
+        }
+        for (int i = 0; i < getChildCount(); i++) {
+            LayoutParams lp = (LayoutParams) getChildAt(i).getLayoutParams();
+            if (lp.position == position) {
+                lp.position = -1;
+            } else if (lp.position > position) {
+                lp.position--;
+            }
+        }
+        if (mCurrentPosition > position) {
+            mCurrentPosition--;
+        }
+        mCurrentPosition = fixPosition(mCurrentPosition);
+        rebindChildren();
+    }
+
+    /**
+     * 移动了单个数据，更新受影响的数据索引，然后只重新绑定受影响的槽位
+     */
+    private void onItemMoved(int fromPosition, int toPosition) {
+        if (fromPosition == toPosition || !canUpdatePartially()) {
+            return;
+        }
+        for (int i = 0; i < getChildCount(); i++) {
+            LayoutParams lp = (LayoutParams) getChildAt(i).getLayoutParams();
+            lp.position = getMovedPosition(lp.position, fromPosition, toPosition);
+        }
+        mCurrentPosition = getMovedPosition(mCurrentPosition, fromPosition, toPosition);
+        rebindChildren();
+    }
+
+    private int getMovedPosition(int position, int fromPosition, int toPosition) {
+        if (position == fromPosition) {
+            return toPosition;
+        }
+        if (fromPosition < toPosition) {
+            return position > fromPosition && position <= toPosition ? position - 1 : position;
+        } else {
+            return position >= toPosition && position < fromPosition ? position + 1 : position;
+        }
+    }
+
+    /**
+     * 列表差异计算完成 (由ListAdapter调用)，如果正在拖动或者播放动画，则等到静止后再应用
+     */
+    private void onDiffResult(DiffResult<?> result) {
+        mPendingDiffResult = result;
+        performPendingUpdates();
+    }
+
+    private int[] mTempPositions;
+
+    /**
+     * 应用列表差异：只重新绑定数据改变了的子View
+     */
+    private void applyDiffResult(DiffResult<?> result) {
+        boolean wasVirtualized = isVirtualized();
+        mAdapter.onSwapList(result);
+        mItemCount = mAdapter.getItemCount();
+        if (isChildCountChanged(wasVirtualized)) {
+            //子View数量或者模式会变化，需要完整刷新
+            updateAdapterDataNow(mAdapter);
+            return;
+        }
+        int childCount = getChildCount();
+        for (int i = 0; i < childCount; i++) {
+            LayoutParams lp = (LayoutParams) getChildAt(i).getLayoutParams();
+            lp.position = result.getNewPosition(lp.position);
+            mTempPositions[i] = lp.position;
+        }
+        mCurrentPosition = fixPosition(result.getNearestNewPosition(mCurrentPosition));
+        //先绑定槽位对应的数据变了的子View
+        rebindChildren();
+        //再局部更新数据还是同一个，但内容改变了的子View
+        for (int i = 0; i < childCount; i++) {
+            int position = ((LayoutParams) getChildAt(i).getLayoutParams()).position;
+            if (position == mTempPositions[i] && result.isContentChanged(position)) {
+                rebindChildAt(i, position, result.getChangePayload(position));
+            }
+        }
+    }
+
+    /**
+     * 判断数据数量变化后能否只更新受影响的子View:
+     * 只有子View数量和模式（是否虚拟化）都不变，并且没有在播放动画时才可以，
+     * 比如虚拟化模式下插入或移除数据、任意模式下移动数据，否则安排一次完整的刷新
+     */
+    private boolean canUpdatePartially() {
+        boolean wasVirtualized = isVirtualized();
+        mItemCount = mAdapter.getItemCount();
+        if (!isChildCountChanged(wasVirtualized) && !mPostOnAnimationEnd && !mSettleAnimator.isRunning()) {
+            return true;
+        }
+        setAdapterInternal(mAdapter);
+        return false;
+    }
+
+    /**
+     * 数据数量更新后，子View数量或者模式是否需要改变
+     *
+     * @param wasVirtualized 更新前是否处于虚拟化模式
+     */
+    private boolean isChildCountChanged(boolean wasVirtualized) {
+        return wasVirtualized != isVirtualized() || Math.min(mItemCount, mVisibleItemCount) != getChildCount();
+    }
+
+    /**
+     * 把全部子View移除并放进缓存池
+     */
+    private void recycleAllViews() {
+        mScrapViews.clear();
+        for (int i = 0; i < getChildCount(); i++) {
+            mScrapViews.add(getChildAt(i));
+        }
+        removeAllViews();
+        for (int i = 0; i < mScrapViews.size(); i++) {
+            restoreChildLayer(mScrapViews.get(i));
+            getRecycledViewPool().putRecycledView(mScrapViews.get(i));
+        }
+        mScrapViews.clear();
+    }
+
+    /**
+     * 设置最多可同时显示的子View数量（槽位数量），默认5个
+     * 使用适配器时，数据数量超过这个值就会循环复用子View
+     *
+     * @param count 不小于3的奇数，如3, 5, 7, 9
+     */
+    public LitePager setVisibleItemCount(int count) {
+        if (count < 3 || count % 2 == 0) {
+            throw new IllegalArgumentException("visibleItemCount must be an odd number and not less than 3!");
+        }
+        if (mAdapter == null && getChildCount() > count) {
+            throw new IllegalStateException("LitePager already contains " + getChildCount() + " child!");
+        }
+        if (mVisibleItemCount != count) {
+            mVisibleItemCount = count;
+            mEngine.setCapacity(count);
+            allocateChildArrays();
+            if (mRecycledViewPool != null) {
+                mRecycledViewPool.ensureDefaultMaxRecycledViews(count);
+            }
+            if (mAdapter != null) {
+                setAdapterInternal(mAdapter);
+            }
+            requestLayout();
+        }
+        return this;
+    }
+
+    public int getVisibleItemCount() {
+        return mVisibleItemCount;
+    }
+
     /**
      * 设置调整动画的时长
      */
@@ -1317,15 +1838,140 @@ public class LitePager extends ViewGroup implements Runnable {
         mFlingDuration = flingDuration;
     }
 
+    /**
+     * 设置调整动画的运动模型，如{@link SettleModel.Spring}
+     * 每个LitePager都要使用单独的实例
+     *
+     * @param model 传null则恢复默认的固定时长模型
+     */
+    public LitePager setSettleModel(@Nullable SettleModel model) {
+        mSettleModel = model == null ? new SettleModel.FixedDuration() : model;
+        mSettleAnimator.setModel(mSettleModel);
+        return this;
+    }
+
+    @NonNull
+    public SettleModel getSettleModel() {
+        return mSettleModel;
+    }
+
+    /**
+     * 设置是否减少动画，适合低性能设备或者省电的场景
+     * 开启后，松手、选中子View和自动轮播时都直接跳到目标位置，不再逐帧播放调整动画
+     *
+     * @param enable 默认跟随系统是否处于省电模式
+     */
+    public LitePager setReducedMotionEnabled(boolean enable) {
+        isReducedMotion = enable;
+        updateDurationScale();
+        return this;
+    }
+
+    public boolean isReducedMotionEnabled() {
+        return isReducedMotion;
+    }
+
+    /**
+     * 开启或关闭性能统计，关闭时不会有任何额外开销
+     *
+     * @param enable 默认关闭，重新开启时会从0开始统计
+     */
+    public LitePager setPerformanceStatsEnabled(boolean enable) {
+        if (!enable) {
+            mPerformanceStats = null;
+        } else if (mPerformanceStats == null) {
+            mPerformanceStats = new PerformanceStats();
+        }
+        return this;
+    }
+
+    /**
+     * 开启或关闭systrace/Perfetto中的耗时片段标记（测量、布局、层级更新、适配器创建和绑定、触摸查找、调整动画帧），
+     * 对全部LitePager生效，只在API 18及以上有效，关闭时几乎没有开销
+     *
+     * @param enable 默认关闭
+     */
+    public static void setTraceEnabled(boolean enable) {
+        TraceSection.setEnabled(enable);
+    }
+
+    public static boolean isTraceEnabled() {
+        return TraceSection.isEnabled();
+    }
+
+    /**
+     * 设置是否跳过被上层完全挡住的子View，减少过度绘制，适合子View有不透明背景的场景
+     * 只有{@link View#isOpaque()}返回true的子View才会挡住下层，带圆角或者半透明的背景不算
+     *
+     * @param enable 默认关闭
+     */
+    public LitePager setOcclusionCullingEnabled(boolean enable) {
+        if (isOcclusionCullingEnabled != enable) {
+            isOcclusionCullingEnabled = enable;
+            invalidate();
+        }
+        return this;
+    }
+
+    public boolean isOcclusionCullingEnabled() {
+        return isOcclusionCullingEnabled;
+    }
+
+    /**
+     * 设置是否在拖动和调整时自动给子View开启硬件图层，静止后关闭，
+     * 适合内容复杂的子View（开启期间会占用更多的显存）
+     *
+     * @param enable 默认关闭
+     */
+    public LitePager setHardwareLayerEnabled(boolean enable) {
+        isHardwareLayerEnabled = enable;
+        updateChildLayers();
+        return this;
+    }
+
+    public boolean isHardwareLayerEnabled() {
+        return isHardwareLayerEnabled;
+    }
+
+    /**
+     * 设置子View的尺寸（包括外边距）是否固定，不会随着绑定的数据或者内容改变
+     * 开启后，测量参数和子View数量都没变时，直接使用上次的测量结果，只重新测量新绑定或内容改变了的子View
+     *
+     * @param hasFixedSize 默认false
+     */
+    public LitePager setHasFixedItemSize(boolean hasFixedSize) {
+        if (hasFixedItemSize != hasFixedSize) {
+            hasFixedItemSize = hasFixedSize;
+            isMeasureCacheValid = false;
+            requestLayout();
+        }
+        return this;
+    }
+
+    public boolean hasFixedItemSize() {
+        return hasFixedItemSize;
+    }
+
+    /**
+     * 获取性能统计，可以定时读取后上报
+     *
+     * @return 没有开启时返回null
+     */
+    @Nullable
+    public PerformanceStats getPerformanceStats() {
+        return mPerformanceStats;
+    }
+
     /**
      * 设置最小缩放比例
      */
     public void setBottomScale(@FloatRange(from = 0, to = 1) float scale) {
         mBottomScale = scale;
-        if (!is5Child()) {
+        //只有3个槽位时，两边的就是底层
+        if (getSlotCount() == 3) {
             mMiddleScale = scale;
         }
-        requestLayout();
+        invalidateSlotTable();
     }
 
     /**
@@ -1333,10 +1979,10 @@ public class LitePager extends ViewGroup implements Runnable {
      */
     public void setBottomAlpha(@FloatRange(from = 0, to = 1) float alpha) {
         mBottomAlpha = alpha;
-        if (!is5Child()) {
+        if (getSlotCount() == 3) {
             mMiddleAlpha = alpha;
         }
-        requestLayout();
+        invalidateSlotTable();
     }
 
     /**
@@ -1344,7 +1990,7 @@ public class LitePager extends ViewGroup implements Runnable {
      */
     public void setTopScale(@FloatRange(from = 0, to = 1) float scale) {
         mTopScale = scale;
-        requestLayout();
+        invalidateSlotTable();
     }
 
     /**
@@ -1352,7 +1998,7 @@ public class LitePager extends ViewGroup implements Runnable {
      */
     public void setTopAlpha(@FloatRange(from = 0, to = 1) float alpha) {
         mTopAlpha = alpha;
-        requestLayout();
+        invalidateSlotTable();
     }
 
     /**
@@ -1360,7 +2006,7 @@ public class LitePager extends ViewGroup implements Runnable {
      */
     public void setMiddleScale(@FloatRange(from = 0, to = 1) float scale) {
         mMiddleScale = scale;
-        requestLayout();
+        invalidateSlotTable();
     }
 
     /**
@@ -1368,7 +2014,7 @@ public class LitePager extends ViewGroup implements Runnable {
      */
     public void setMiddleAlpha(@FloatRange(from = 0, to = 1) float alpha) {
         mMiddleAlpha = alpha;
-        requestLayout();
+        invalidateSlotTable();
     }
 
     /**
@@ -1378,12 +2024,17 @@ public class LitePager extends ViewGroup implements Runnable {
         mOrientation = orientation;
         mOffsetX = 0;
         mOffsetY = 0;
-        mOffsetPercent = 0;
+        mEngine.setOffsetPercent(0);
         int oldState = mCurrentState;
         mCurrentState = STATE_IDLE;
+        updateChildLayers();
         if (oldState != mCurrentState && mOnScrollListener != null) {
             mOnScrollListener.onStateChanged(mCurrentState);
         }
+        mEngine.setSize(isHorizontal() ? getWidth() : getHeight());
+        invalidateChildTransforms();
+        //wrap_content时的尺寸跟方向有关
+        isMeasureCacheValid = false;
         requestLayout();
     }
 
@@ -1398,7 +2049,7 @@ public class LitePager extends ViewGroup implements Runnable {
      * 获取当前选中的子View
      */
     public View getSelectedChild() {
-        return getChildAt(getChildCount() - 1);
+        return getTopChild();
     }
 
     public interface OnScrollListener {
@@ -1422,11 +2073,8 @@ public class LitePager extends ViewGroup implements Runnable {
     public LitePager setAutoScrollEnable(boolean enable) {
         if (mAutoScrollEnable != enable) {
             mAutoScrollEnable = enable;
-            if (enable) {
-                postDelayed(this, mAutoScrollInterval);
-            } else {
-                removeCallbacks(this);
-            }
+            mAutoScrollRemaining = -1;
+            updateAutoScroll();
         }
         return this;
     }
@@ -1465,16 +2113,23 @@ public class LitePager extends ViewGroup implements Runnable {
 
     /**
      * 设置适配器
+     * 数据数量超过最多可同时显示的数量（{@link #setVisibleItemCount(int)}，默认5个）时，只会创建这么多个子View，
+     * 滑动时把移出边缘的子View重新绑定到新的数据上，
+     * 所以无论数据有多少，内存占用和绑定次数都是固定的
      *
      * @param adapter 适配器
      */
     public LitePager setAdapter(Adapter adapter) {
         if (mAdapter != null) {
             mAdapter.mLitePager = null;
+            recycleAllViews();
         }
+        getRecycledViewPool().onAdapterChanged(mAdapter, adapter);
+        mCurrentPosition = 0;
+        mPendingDiffResult = null;
         if (adapter == null) {
             mAdapter = null;
-            removeAllViews();
+            mItemCount = 0;
             return this;
         }
         mAdapter = adapter;
@@ -1487,6 +2142,52 @@ public class LitePager extends ViewGroup implements Runnable {
         return mAdapter;
     }
 
+    /**
+     * 设置子View缓存池，多个LitePager可以共用同一个缓存池
+     *
+     * @param pool 缓存池，传null则使用默认的
+     */
+    public LitePager setRecycledViewPool(@Nullable RecycledViewPool pool) {
+        if (mRecycledViewPool != null && mAdapter != null) {
+            mRecycledViewPool.detach();
+        }
+        mRecycledViewPool = pool;
+        if (mRecycledViewPool != null) {
+            mRecycledViewPool.ensureDefaultMaxRecycledViews(mVisibleItemCount);
+            if (mAdapter != null) {
+                mRecycledViewPool.attach();
+            }
+        }
+        return this;
+    }
+
+    @NonNull
+    public RecycledViewPool getRecycledViewPool() {
+        if (mRecycledViewPool == null) {
+            mRecycledViewPool = new RecycledViewPool();
+            mRecycledViewPool.ensureDefaultMaxRecycledViews(mVisibleItemCount);
+            if (mAdapter != null) {
+                mRecycledViewPool.attach();
+            }
+        }
+        return mRecycledViewPool;
+    }
+
+    /**
+     * 获取当前选中的子View所对应的数据索引
+     *
+     * @return 如果没有设置适配器，则返回-1
+     */
+    public int getSelectedPosition() {
+        if (mAdapter == null || getChildCount() == 0) {
+            return -1;
+        }
+        if (isVirtualized()) {
+            return mCurrentPosition;
+        }
+        return ((LayoutParams) getSelectedChild().getLayoutParams()).position;
+    }
+
     @SuppressWarnings("WeakerAccess")
     public static abstract class Adapter<V extends View> {
 
@@ -1499,18 +2200,215 @@ public class LitePager extends ViewGroup implements Runnable {
             }
         }
 
+        /**
+         * 列表差异计算完成，交给LitePager在静止时应用
+         */
+        void dispatchDiffResult(@NonNull DiffResult<?> result) {
+            if (mLitePager != null) {
+                mLitePager.onDiffResult(result);
+            } else {
+                onSwapList(result);
+            }
+        }
+
+        /**
+         * 丢弃还没应用的列表差异
+         */
+        void cancelPendingDiffResult() {
+            if (mLitePager != null) {
+                mLitePager.mPendingDiffResult = null;
+            }
+        }
+
+        /**
+         * 换成差异结果中的新列表，由{@link ListAdapter}实现
+         */
+        void onSwapList(@NonNull DiffResult<?> result) {
+        }
+
+        /**
+         * 通知单个数据的内容改变了，只会重新绑定显示这个数据的子View
+         */
+        public void notifyItemChanged(int position) {
+            notifyItemChanged(position, null);
+        }
+
+        /**
+         * 通知单个数据的内容改变了
+         *
+         * @param payload 局部更新的数据，会传到{@link #onBindView(View, int, List)}中
+         */
+        @CallSuper
+        public void notifyItemChanged(int position, @Nullable Object payload) {
+            if (mLitePager != null) {
+                mLitePager.onItemChanged(position, payload);
+            }
+        }
+
+        /**
+         * 通知插入了单个数据
+         */
+        @CallSuper
+        public void notifyItemInserted(int position) {
+            if (mLitePager != null) {
+                mLitePager.onItemInserted(position);
+            }
+        }
+
+        /**
+         * 通知移除了单个数据
+         */
+        @CallSuper
+        public void notifyItemRemoved(int position) {
+            if (mLitePager != null) {
+                mLitePager.onItemRemoved(position);
+            }
+        }
+
+        /**
+         * 通知单个数据的位置移动了
+         */
+        @CallSuper
+        public void notifyItemMoved(int fromPosition, int toPosition) {
+            if (mLitePager != null) {
+                mLitePager.onItemMoved(fromPosition, toPosition);
+            }
+        }
+
         protected abstract V onCreateView(@NonNull ViewGroup parent);
 
+        /**
+         * 创建指定类型的子View，有多种类型时重写此方法
+         *
+         * @param viewType {@link #getItemViewType(int)}的返回值
+         */
+        protected V onCreateView(@NonNull ViewGroup parent, int viewType) {
+            return onCreateView(parent);
+        }
+
         protected abstract void onBindView(@NonNull V v, int position);
 
+        /**
+         * 绑定数据，需要局部更新时重写此方法
+         *
+         * @param payloads 通过{@link #notifyItemChanged(int, Object)}传进来的局部更新数据，为空时需要完整绑定
+         */
+        protected void onBindView(@NonNull V v, int position, @NonNull List<Object> payloads) {
+            onBindView(v, position);
+        }
+
         protected abstract int getItemCount();
+
+        /**
+         * 子View的内容是否有重叠的部分（比如背景上面还有图片和文字），
+         * 没有重叠时改变不透明度不需要离屏缓冲：拖动和调整期间会应用到子View上（API 24以上，静止后还原），
+         * 开启了硬件图层({@link LitePager#setHardwareLayerEnabled(boolean)})时也会跳过它
+         *
+         * @return 默认跟子View自己的{@link View#hasOverlappingRendering()}一样
+         */
+        protected boolean hasOverlappingRendering(@NonNull V v, int position) {
+            return v.hasOverlappingRendering();
+        }
+
+        /**
+         * 获取数据对应的子View类型，同类型的子View可以相互复用
+         */
+        protected int getItemViewType(int position) {
+            return 0;
+        }
+    }
+
+    /**
+     * 子View缓存池，按子View类型存放被回收的子View，刷新数据时优先从这里取
+     * 每种类型默认最多缓存的数量，跟使用它的LitePager中最大的槽位数量一样（至少5个）
+     */
+    public static class RecycledViewPool {
+
+        private SparseArray<ArrayList<View>> mScrap = new SparseArray<>();
+        private SparseIntArray mMaxScrap = new SparseIntArray();
+        private int mDefaultMaxScrap = DEFAULT_VISIBLE_ITEM_COUNT;//没有单独设置过的类型最多缓存多少个
+        private int mAttachCount;//正在使用此缓存池的适配器数量
+
+        /**
+         * 设置指定类型的子View最多缓存多少个，会覆盖默认的数量（槽位数量）
+         */
+        public void setMaxRecycledViews(int viewType, int max) {
+            mMaxScrap.put(viewType, max);
+            ArrayList<View> scrap = mScrap.get(viewType);
+            while (scrap != null && scrap.size() > max) {
+                scrap.remove(scrap.size() - 1);
+            }
+        }
+
+        public int getRecycledViewCount(int viewType) {
+            ArrayList<View> scrap = mScrap.get(viewType);
+            return scrap == null ? 0 : scrap.size();
+        }
+
+        public void clear() {
+            for (int i = 0; i < mScrap.size(); i++) {
+                mScrap.valueAt(i).clear();
+            }
+        }
+
+        @Nullable
+        View getRecycledView(int viewType) {
+            ArrayList<View> scrap = mScrap.get(viewType);
+            return scrap == null || scrap.isEmpty() ? null : scrap.remove(scrap.size() - 1);
+        }
+
+        void putRecycledView(View view) {
+            int viewType = ((LayoutParams) view.getLayoutParams()).viewType;
+            ArrayList<View> scrap = mScrap.get(viewType);
+            if (scrap == null) {
+                scrap = new ArrayList<>();
+                mScrap.put(viewType, scrap);
+            }
+            if (scrap.size() < mMaxScrap.get(viewType, mDefaultMaxScrap)) {
+                scrap.add(view);
+            }
+        }
+
+        /**
+         * 保证默认的缓存数量能装下一整个LitePager的子View（槽位数量）
+         */
+        void ensureDefaultMaxRecycledViews(int count) {
+            mDefaultMaxScrap = Math.max(mDefaultMaxScrap, count);
+        }
+
+        void attach() {
+            mAttachCount++;
+        }
+
+        void detach() {
+            mAttachCount--;
+        }
+
+        /**
+         * 换了适配器之后，旧的子View不一定适用于新的适配器，
+         * 所以如果没有其他LitePager在使用此缓存池，就把它清空
+         */
+        void onAdapterChanged(Adapter oldAdapter, Adapter newAdapter) {
+            if (oldAdapter != null) {
+                detach();
+            }
+            if (mAttachCount == 0) {
+                clear();
+            }
+            if (newAdapter != null) {
+                attach();
+            }
+        }
     }
 
     static class LayoutParams extends MarginLayoutParams {
 
-        int to, from;
-        float scale;
-        float alpha;
+        int position = -1;//对应的数据索引，没有设置适配器时为-1
+        int viewType;//子View类型
+        boolean hasPromotedLayer;//是否由LitePager开启了硬件图层
+        boolean hasForcedOverlapping;//是否由LitePager修改了hasOverlappingRendering
+        boolean originalOverlapping;//修改之前的hasOverlappingRendering，静止后还原
+        boolean isMeasureDirty = true;//子View尺寸固定时，用来判断需不需要重新测量
 
         LayoutParams(Context c, AttributeSet attrs) {
             super(c, attrs);
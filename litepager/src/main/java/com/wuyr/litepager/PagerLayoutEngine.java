@@ -0,0 +1,352 @@
+package com.wuyr.litepager;
+
+/**
+ * LitePager的布局计算部分：槽位表、偏移百分比、子View的起始槽位和目标槽位、
+ * 每帧的基准线、缩放比例、不透明度以及绘制顺序
+ * 不依赖Android框架，可以直接在普通的JVM上运行（见benchmark模块）
+ * 子View的状态按它在LitePager中的索引存放，每帧的计算都不会分配内存
+ *
+ * @author wuyr
+ * @github https://github.com/wuyr/LitePager
+ * @since 2026-10-17 下午5:06
+ */
+final class PagerLayoutEngine {
+
+    private int mChildCount;//子View数量
+    private int mSlotCount;//槽位数量，子View数量不足时，空出来的槽位也要算上
+    private int mSize;//滑动方向上的尺寸
+    private float mOffsetPercent;//偏移的百分比
+    private float mTopScale, mMiddleScale, mBottomScale;//缩放比例
+    private float mTopAlpha, mMiddleAlpha, mBottomAlpha;//不透明度
+
+    private int[] mFroms;//子View的起始槽位
+    private int[] mTos;//子View的目标槽位
+    private float[] mBaseLines;//子View当前的基准线
+    private float[] mScales;//子View当前的缩放比例
+    private float[] mAlphas;//子View当前的不透明度
+
+    private int[] mDrawingOrder;//绘制顺序，层级低的在前面
+    private int[] mChildLayers;//子View的层级
+    private int[] mTempOrder;
+    private int mDrawingOrderCount;
+
+    private float[] mSlotBaseLines;//每个槽位的基准线
+    private float[] mSlotScales;//每个槽位的缩放比例
+    private float[] mSlotAlphas;//每个槽位的不透明度
+    private float[] mSlotAlphaLeads;//离开这个槽位时，不透明度是否在前半段就开始改变(1或0)
+    private int[] mSlotNexts;//向右(下)滑动时，每个槽位的目标槽位
+    private int[] mSlotPrevious;//向左(上)滑动时，每个槽位的目标槽位
+    private int mSlotTableCount;//槽位表中的槽位数量
+    private boolean isSlotTableDirty = true;
+
+    /**
+     * @param capacity 最多可同时存在的子View数量
+     */
+    PagerLayoutEngine(int capacity) {
+        mSlotCount = fixSlotCount(0);
+        setCapacity(capacity);
+    }
+
+    /**
+     * 按最大槽位数量分配各个数组，之后滑动时不会再分配内存
+     * 已有的子View状态会被保留
+     */
+    void setCapacity(int capacity) {
+        int count = Math.max(fixSlotCount(capacity), fixSlotCount(mChildCount));
+        mFroms = copyOf(mFroms, count);
+        mTos = copyOf(mTos, count);
+        mBaseLines = new float[count];
+        mScales = new float[count];
+        mAlphas = new float[count];
+        mDrawingOrder = new int[count];
+        mChildLayers = new int[count];
+        mTempOrder = new int[count];
+        mSlotBaseLines = new float[count];
+        mSlotScales = new float[count];
+        mSlotAlphas = new float[count];
+        mSlotAlphaLeads = new float[count];
+        mSlotNexts = new int[count];
+        mSlotPrevious = new int[count];
+        mDrawingOrderCount = 0;
+        isSlotTableDirty = true;
+    }
+
+    private int[] copyOf(int[] source, int length) {
+        int[] result = new int[length];
+        if (source != null) {
+            System.arraycopy(source, 0, result, 0, Math.min(mChildCount, length));
+        }
+        return result;
+    }
+
+    /**
+     * 设置滑动方向上的尺寸（宽或高）
+     */
+    void setSize(int size) {
+        if (mSize != size) {
+            mSize = size;
+            isSlotTableDirty = true;
+        }
+    }
+
+    /**
+     * 设置中间、紧挨着中间、最外面的缩放比例
+     */
+    void setScales(float top, float middle, float bottom) {
+        mTopScale = top;
+        mMiddleScale = middle;
+        mBottomScale = bottom;
+        isSlotTableDirty = true;
+    }
+
+    /**
+     * 设置中间、紧挨着中间、最外面的不透明度
+     */
+    void setAlphas(float top, float middle, float bottom) {
+        mTopAlpha = top;
+        mMiddleAlpha = middle;
+        mBottomAlpha = bottom;
+        isSlotTableDirty = true;
+    }
+
+    int getChildCount() {
+        return mChildCount;
+    }
+
+    int getSlotCount() {
+        return mSlotCount;
+    }
+
+    /**
+     * 重新排列全部子View：第i个子View在第i个槽位上
+     */
+    void resetChildren(int childCount) {
+        for (int i = 0; i < childCount; i++) {
+            mFroms[i] = i;
+            mTos[i] = 0;
+        }
+        setChildCount(childCount);
+    }
+
+    /**
+     * 在指定索引处插入子View，后面的子View状态往后移
+     *
+     * @param from 新子View的起始槽位
+     */
+    void insertChild(int index, int from) {
+        System.arraycopy(mFroms, index, mFroms, index + 1, mChildCount - index);
+        System.arraycopy(mTos, index, mTos, index + 1, mChildCount - index);
+        mFroms[index] = from;
+        mTos[index] = 0;
+        setChildCount(mChildCount + 1);
+    }
+
+    /**
+     * 移除指定索引的子View，后面的子View状态往前移
+     */
+    void removeChild(int index) {
+        System.arraycopy(mFroms, index + 1, mFroms, index, mChildCount - index - 1);
+        System.arraycopy(mTos, index + 1, mTos, index, mChildCount - index - 1);
+        setChildCount(mChildCount - 1);
+    }
+
+    private void setChildCount(int childCount) {
+        mChildCount = childCount;
+        mSlotCount = fixSlotCount(childCount);
+        mDrawingOrderCount = 0;
+    }
+
+    int getFrom(int index) {
+        return mFroms[index];
+    }
+
+    int getTo(int index) {
+        return mTos[index];
+    }
+
+    void setFromAndTo(int index, int from, int to) {
+        mFroms[index] = from;
+        mTos[index] = to;
+    }
+
+    float getOffsetPercent() {
+        return mOffsetPercent;
+    }
+
+    void setOffsetPercent(float offsetPercent) {
+        mOffsetPercent = offsetPercent;
+    }
+
+    /**
+     * @return 是否已经滑过了一个完整的槽位（偏移百分比为无穷大时返回false，避免一直提交下去）
+     */
+    boolean isStepFinished() {
+        return Math.abs(mOffsetPercent) >= 1 && !Float.isInfinite(mOffsetPercent);
+    }
+
+    /**
+     * 滑过一个完整的槽位后，把目标槽位作为新的起始槽位
+     * 一次滑过多个槽位时，需要在每次提交后更新目标槽位，直到{@link #isStepFinished()}返回false
+     */
+    void finishStep() {
+        for (int i = 0; i < mChildCount; i++) {
+            mFroms[i] = mTos[i];
+        }
+        mOffsetPercent -= mOffsetPercent > 0 ? 1 : -1;
+    }
+
+    /**
+     * 根据滑动方向更新子View的目标槽位
+     */
+    void updateTargets() {
+        updateSlotTableIfNeeded();
+        int[] targets = mOffsetPercent > 0 ? mSlotNexts : mSlotPrevious;
+        for (int i = 0; i < mChildCount; i++) {
+            mTos[i] = targets[mFroms[i]];
+        }
+    }
+
+    /**
+     * 更新子View的层级顺序：只改变绘制顺序，不会改动子View在ViewGroup中的索引
+     * 离中间槽位越远，层级越低；偏移超过一半时按目标槽位来算，
+     * 从一侧移动到另一侧的子View（要从中间的后面经过）在同一层中最低
+     *
+     * @return 绘制顺序是否改变了
+     */
+    boolean updateDrawingOrder() {
+        int childCount = mChildCount;
+        boolean isPassedHalf = Math.abs(mOffsetPercent) > .5F;
+        for (int i = 0; i < childCount; i++) {
+            int from = getRelativeIndex(mFroms[i], mSlotCount);
+            int to = getRelativeIndex(mTos[i], mSlotCount);
+            boolean isCrossing = mOffsetPercent != 0 && Math.abs(to - from) > 1;
+            mChildLayers[i] = -(Math.abs(isPassedHalf ? to : from) * 2 + (isCrossing ? 1 : 0));
+        }
+        //按层级插入排序，层级相同的按索引排
+        for (int i = 0; i < childCount; i++) {
+            int position = i;
+            while (position > 0 && mChildLayers[mTempOrder[position - 1]] > mChildLayers[i]) {
+                mTempOrder[position] = mTempOrder[position - 1];
+                position--;
+            }
+            mTempOrder[position] = i;
+        }
+        boolean isChanged = mDrawingOrderCount != childCount;
+        for (int i = 0; i < childCount; i++) {
+            if (mDrawingOrder[i] != mTempOrder[i]) {
+                mDrawingOrder[i] = mTempOrder[i];
+                isChanged = true;
+            }
+        }
+        mDrawingOrderCount = childCount;
+        return isChanged;
+    }
+
+    /**
+     * @return 第i个绘制的子View索引，绘制顺序还没计算时按索引顺序
+     */
+    int getDrawingOrder(int childCount, int i) {
+        return mDrawingOrderCount == childCount ? mDrawingOrder[i] : i;
+    }
+
+    /**
+     * 根据当前偏移，更新全部子View的基准线、缩放比例和不透明度
+     * 只需要在起始槽位和目标槽位之间插值
+     */
+    void updateTransforms() {
+        updateSlotTableIfNeeded();
+        float progress = Math.abs(mOffsetPercent);
+        //离开中间槽位的子View在前半段就改变不透明度，其他的要在后半段才开始改变
+        float earlyAlphaProgress = Math.min(progress * 2, 1);
+        float lateAlphaProgress = Math.max(progress * 2 - 1, 0);
+        for (int i = 0; i < mChildCount; i++) {
+            int from = mFroms[i], to = mTos[i];
+            float alphaProgress = lateAlphaProgress + (earlyAlphaProgress - lateAlphaProgress) * mSlotAlphaLeads[from];
+            mAlphas[i] = mSlotAlphas[from] + (mSlotAlphas[to] - mSlotAlphas[from]) * alphaProgress;
+            mScales[i] = mSlotScales[from] + (mSlotScales[to] - mSlotScales[from]) * progress;
+            mBaseLines[i] = mSlotBaseLines[from] + (mSlotBaseLines[to] - mSlotBaseLines[from]) * progress;
+        }
+    }
+
+    float getBaseLine(int index) {
+        return mBaseLines[index];
+    }
+
+    float getScale(int index) {
+        return mScales[index];
+    }
+
+    float getAlpha(int index) {
+        return mAlphas[index];
+    }
+
+    /**
+     * 在尺寸、槽位数量、缩放比例或不透明度改变后，重新计算槽位表
+     * 槽位从左到右等距排列（如5个槽位时为0, 2, 4, 3, 1），
+     * 中间的使用顶层的缩放比例和不透明度，紧挨着中间的使用中层的，最外面的使用底层的，其余的在中层和底层之间均匀过渡
+     */
+    private void updateSlotTableIfNeeded() {
+        int slotCount = mSlotCount;
+        if (!isSlotTableDirty && mSlotTableCount == slotCount) {
+            return;
+        }
+        float itemDistance = (float) mSize / (slotCount + 1);
+        int half = slotCount / 2;
+        for (int column = 0; column < slotCount; column++) {
+            int slot = getSlotByColumn(column, slotCount);
+            int distance = Math.abs(column - half);
+            float scale, alpha;
+            if (distance == 0) {
+                scale = mTopScale;
+                alpha = mTopAlpha;
+            } else if (half == 1) {
+                scale = mMiddleScale;
+                alpha = mMiddleAlpha;
+            } else {
+                float progress = (float) (distance - 1) / (half - 1);
+                scale = mMiddleScale + (mBottomScale - mMiddleScale) * progress;
+                alpha = mMiddleAlpha + (mBottomAlpha - mMiddleAlpha) * progress;
+            }
+            mSlotBaseLines[slot] = itemDistance * (column + 1);
+            mSlotScales[slot] = scale;
+            mSlotAlphas[slot] = alpha;
+            mSlotAlphaLeads[slot] = distance == 0 ? 1 : 0;
+            //首尾相连
+            mSlotNexts[slot] = getSlotByColumn((column + 1) % slotCount, slotCount);
+            mSlotPrevious[slot] = getSlotByColumn((column - 1 + slotCount) % slotCount, slotCount);
+        }
+        mSlotTableCount = slotCount;
+        isSlotTableDirty = false;
+    }
+
+    /**
+     * 槽位数量必须是不小于3的奇数（中间一个，两边对称）
+     */
+    static int fixSlotCount(int count) {
+        return Math.max(3, count | 1);
+    }
+
+    /**
+     * 槽位相对于中间槽位的距离，左(上)边为负数，右(下)边为正数
+     * 如5个子View时，从左到右的槽位分别是0, 2, 4, 3, 1
+     */
+    static int getRelativeIndex(int slot, int slotCount) {
+        if (slot == slotCount - 1) {
+            return 0;
+        }
+        int distance = slotCount / 2 - slot / 2;
+        return slot % 2 == 0 ? -distance : distance;
+    }
+
+    /**
+     * 根据从左到右的排列位置计算出槽位，getRelativeIndex的逆运算
+     */
+    static int getSlotByColumn(int column, int slotCount) {
+        int half = slotCount / 2;
+        int relativeIndex = column - half;
+        if (relativeIndex == 0) {
+            return slotCount - 1;
+        }
+        return (half - Math.abs(relativeIndex)) * 2 + (relativeIndex > 0 ? 1 : 0);
+    }
+}
@@ -0,0 +1,144 @@
+package com.wuyr.litepager;
+
+/**
+ * LitePager的性能统计，通过{@link LitePager#setPerformanceStatsEnabled(boolean)}开启
+ * 全部都是累计值，记录时不会分配内存，可以定时读取后上报，需要时调用{@link #reset()}清零
+ * 只能在主线程读取
+ *
+ * @author wuyr
+ * @github https://github.com/wuyr/LitePager
+ * @since 2026-10-17 下午7:02
+ */
+@SuppressWarnings("WeakerAccess")
+public final class PerformanceStats {
+
+    long mItemMoveCount;
+    long mItemMoveTimeNanos;
+    long mMaxItemMoveTimeNanos;
+    long mLayoutCount;
+    long mLayoutTimeNanos;
+    long mMaxLayoutTimeNanos;
+    long mReorderCount;
+    long mBindCount;
+    long mCreateCount;
+    long mSettleStartCount;
+    long mSettleCancelCount;
+    long mSettleRetargetCount;
+
+    PerformanceStats() {
+    }
+
+    /**
+     * @return 拖动或者播放调整动画时，更新子View的帧数（只更新位移、缩放和不透明度，不会重新布局）
+     */
+    public long getItemMoveCount() {
+        return mItemMoveCount;
+    }
+
+    /**
+     * @return 上面这些帧的总耗时(纳秒)
+     */
+    public long getItemMoveTimeNanos() {
+        return mItemMoveTimeNanos;
+    }
+
+    /**
+     * @return 上面这些帧中，耗时最长的一帧(纳秒)
+     */
+    public long getMaxItemMoveTimeNanos() {
+        return mMaxItemMoveTimeNanos;
+    }
+
+    /**
+     * @return onLayout的次数
+     */
+    public long getLayoutCount() {
+        return mLayoutCount;
+    }
+
+    /**
+     * @return onLayout的总耗时(纳秒)
+     */
+    public long getLayoutTimeNanos() {
+        return mLayoutTimeNanos;
+    }
+
+    /**
+     * @return 耗时最长的一次onLayout(纳秒)
+     */
+    public long getMaxLayoutTimeNanos() {
+        return mMaxLayoutTimeNanos;
+    }
+
+    /**
+     * @return 子View绘制顺序（层级）改变的次数
+     */
+    public long getReorderCount() {
+        return mReorderCount;
+    }
+
+    /**
+     * @return 适配器绑定数据的次数（包括局部更新）
+     */
+    public long getBindCount() {
+        return mBindCount;
+    }
+
+    /**
+     * @return 适配器创建子View的次数（缓存池中取不到的时候）
+     */
+    public long getCreateCount() {
+        return mCreateCount;
+    }
+
+    /**
+     * @return 开始播放调整动画的次数
+     */
+    public long getSettleStartCount() {
+        return mSettleStartCount;
+    }
+
+    /**
+     * @return 调整动画被打断（如手指按下）的次数
+     */
+    public long getSettleCancelCount() {
+        return mSettleCancelCount;
+    }
+
+    /**
+     * @return 调整动画在播放中途更换目标的次数
+     */
+    public long getSettleRetargetCount() {
+        return mSettleRetargetCount;
+    }
+
+    /**
+     * 全部清零
+     */
+    public void reset() {
+        mItemMoveCount = 0;
+        mItemMoveTimeNanos = 0;
+        mMaxItemMoveTimeNanos = 0;
+        mLayoutCount = 0;
+        mLayoutTimeNanos = 0;
+        mMaxLayoutTimeNanos = 0;
+        mReorderCount = 0;
+        mBindCount = 0;
+        mCreateCount = 0;
+        mSettleStartCount = 0;
+        mSettleCancelCount = 0;
+        mSettleRetargetCount = 0;
+    }
+
+    void onItemMove(long timeNanos) {
+        mItemMoveCount++;
+        mItemMoveTimeNanos += timeNanos;
+        mMaxItemMoveTimeNanos = Math.max(mMaxItemMoveTimeNanos, timeNanos);
+    }
+
+    void onLayout(long timeNanos) {
+        mLayoutCount++;
+        mLayoutTimeNanos += timeNanos;
+        mMaxLayoutTimeNanos = Math.max(mMaxLayoutTimeNanos, timeNanos);
+    }
+}
@@ -0,0 +1,217 @@
+package com.wuyr.litepager;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.view.Choreographer;
+import android.view.View;
+
+/**
+ * LitePager的调整动画：由屏幕刷新信号驱动，同一个实例可以反复设置起点、终点和时长，
+ * 播放过程中不会分配内存，也不依赖ValueAnimator（不受全局动画时长缩放的影响）
+ * 每一帧的值由{@link SettleModel}计算，播放中途更换目标时，会从当前的位置和速率继续，不会停顿
+ *
+ * @author wuyr
+ * @github https://github.com/wuyr/LitePager
+ * @since 2026-10-17 下午5:48
+ */
+final class SettleAnimator implements Runnable {
+
+    /**
+     * API 16以下没有Choreographer，按这个间隔来刷新（跟ValueAnimator一样）
+     */
+    private static final long FALLBACK_FRAME_DELAY = 10;
+
+    interface Callback {
+
+        /**
+         * 每一帧的回调
+         *
+         * @param value 当前的值
+         */
+        void onSettleUpdate(float value);
+
+        /**
+         * 动画正常结束（被取消时不会回调），在这里可以马上开始下一次动画
+         */
+        void onSettleEnd();
+    }
+
+    private final View mView;
+    private final Callback mCallback;
+    private SettleModel mModel;
+    private Object mFrameCallback;//Choreographer.FrameCallback，为了兼容API 16以下，用Object来保存
+    private long mStartTime;//开始时间(纳秒)
+    private long mDuration;//LitePager设置的时长(毫秒)
+    private float mDurationScale = 1;//动画时长的缩放比例，为0时不播放动画，直接跳到终点
+    private int mGeneration;//每次开始或取消都会+1，用来判断回调过程中动画有没有被重新设置过
+    private boolean isRunning;
+    private boolean isFramePosted;
+
+    SettleAnimator(@NonNull View view, @NonNull SettleModel model, @NonNull Callback callback) {
+        mView = view;
+        mModel = model;
+        mCallback = callback;
+    }
+
+    /**
+     * 设置动画时长的缩放比例（只影响这个实例，不会改动全局的设置）
+     *
+     * @param scale 为0时不播放动画，下一帧直接跳到终点
+     */
+    void setDurationScale(float scale) {
+        mDurationScale = Math.max(scale, 0);
+    }
+
+    /**
+     * 更换运动模型，如果正在播放，则新的模型从当前的位置和速率继续滑到原来的终点
+     */
+    void setModel(@NonNull SettleModel model) {
+        if (mModel == model) {
+            return;
+        }
+        SettleModel oldModel = mModel;
+        mModel = model;
+        if (isRunning) {
+            long now = System.nanoTime();
+            updateModel(oldModel, now);
+            //旧模型的速率已经是缩放过的时间单位，直接交给新模型，不能再走start中正在播放的分支（新模型还没开始过）
+            startModel(oldModel.mValue, oldModel.mEndValue, mDuration, oldModel.mVelocity, now);
+        }
+    }
+
+    /**
+     * 开始播放，如果正在播放，则从新的起点以当前的速率继续
+     *
+     * @param start    起始值
+     * @param end      结束值
+     * @param duration 时长(毫秒)，弹簧模型不会用到
+     * @param velocity 没有在播放时的初始速率(每秒)，如松手时的速率
+     */
+    void start(float start, float end, long duration, float velocity) {
+        long now = System.nanoTime();
+        if (isRunning) {
+            updateModel(mModel, now);
+            velocity = mModel.mVelocity;
+        } else if (mDurationScale != 0) {
+            //模型中的时间是缩放过的，速率也要跟着换算
+            velocity *= mDurationScale;
+        }
+        startModel(start, end, duration, velocity, now);
+    }
+
+    /**
+     * 用已经换算成模型时间单位的速率开始当前的模型
+     */
+    private void startModel(float start, float end, long duration, float velocity, long now) {
+        mDuration = duration;
+        mModel.start(start, end, velocity, duration);
+        mStartTime = now;
+        mGeneration++;
+        isRunning = true;
+        postFrame();
+    }
+
+    /**
+     * 根据缩放过的时间更新模型
+     *
+     * @return 是否已经结束
+     */
+    private boolean updateModel(SettleModel model, long timeNanos) {
+        if (mDurationScale == 0) {
+            return model.finish();
+        }
+        return model.update(Math.max(timeNanos - mStartTime, 0) / 1000000F / mDurationScale);
+    }
+
+    /**
+     * 停止播放，停在当前的位置
+     */
+    void cancel() {
+        if (isRunning) {
+            isRunning = false;
+            mGeneration++;
+            removeFrame();
+        }
+    }
+
+    /**
+     * 直接跳到终点并结束，会正常回调{@link Callback#onSettleEnd()}
+     */
+    void end() {
+        if (isRunning) {
+            removeFrame();
+            dispatchFrame(mModel.finish());
+        }
+    }
+
+    boolean isRunning() {
+        return isRunning;
+    }
+
+    @Override
+    public void run() {
+        isFramePosted = false;
+        doFrame(System.nanoTime());
+    }
+
+    private void doFrame(long frameTimeNanos) {
+        if (!isRunning) {
+            return;
+        }
+        dispatchFrame(updateModel(mModel, frameTimeNanos));
+    }
+
+    private void dispatchFrame(boolean isFinished) {
+        int generation = mGeneration;
+        mCallback.onSettleUpdate(mModel.mValue);
+        //在回调中被取消或者重新开始了
+        if (!isRunning || generation != mGeneration) {
+            return;
+        }
+        if (isFinished) {
+            isRunning = false;
+            mCallback.onSettleEnd();
+        } else {
+            postFrame();
+        }
+    }
+
+    private void postFrame() {
+        if (isFramePosted) {
+            return;
+        }
+        isFramePosted = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            Choreographer.getInstance().postFrameCallback(getFrameCallback());
+        } else {
+            mView.postDelayed(this, FALLBACK_FRAME_DELAY);
+        }
+    }
+
+    private void removeFrame() {
+        if (!isFramePosted) {
+            return;
+        }
+        isFramePosted = false;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            Choreographer.getInstance().removeFrameCallback(getFrameCallback());
+        } else {
+            mView.removeCallbacks(this);
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private Choreographer.FrameCallback getFrameCallback() {
+        if (mFrameCallback == null) {
+            mFrameCallback = new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    isFramePosted = false;
+                    SettleAnimator.this.doFrame(frameTimeNanos);
+                }
+            };
+        }
+        return (Choreographer.FrameCallback) mFrameCallback;
+    }
+}
@@ -0,0 +1,210 @@
+package com.wuyr.litepager;
+
+import android.support.annotation.FloatRange;
+import android.support.annotation.NonNull;
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.Interpolator;
+
+/**
+ * 调整动画的运动模型，决定松手或选中子View之后，LitePager怎样滑到目标位置:
+ * {@link FixedDuration} 固定时长 + 插值器（默认）
+ * {@link Spring} 弹簧，时长由刚度、阻尼和初始速率决定
+ * 模型会保存当前动画的状态，所以不能多个LitePager共用同一个实例
+ *
+ * @author wuyr
+ * @github https://github.com/wuyr/LitePager
+ * @since 2026-10-17 下午6:24
+ */
+public abstract class SettleModel {
+
+    float mValue;//当前的值
+    float mVelocity;//当前的速率(每秒)
+    float mEndValue;
+
+    SettleModel() {
+    }
+
+    /**
+     * 开始一次动画
+     *
+     * @param start    起始值
+     * @param end      结束值
+     * @param velocity 初始速率(每秒)
+     * @param duration LitePager设置的动画时长(毫秒)，不一定会用到
+     */
+    abstract void start(float start, float end, float velocity, long duration);
+
+    /**
+     * 计算动画开始后经过指定时间时的值和速率，每一帧调用一次，不会分配内存
+     *
+     * @param elapsed 经过的时间(毫秒)
+     * @return 是否已经结束
+     */
+    abstract boolean update(float elapsed);
+
+    /**
+     * 直接结束（不播放动画时使用）
+     *
+     * @return 总是true
+     */
+    boolean finish() {
+        mValue = mEndValue;
+        mVelocity = 0;
+        return true;
+    }
+
+    /**
+     * 固定时长：正常开始时使用插值器，中途更换目标或者带着速率开始时使用一条三次曲线，
+     * 起点的速率跟之前一样，终点的速率为0：
+     * x = x0 + v0T * s + (3d - 2v0T) * s^2 + (v0T - 2d) * s^3
+     * 当v0T = 2d时，刚好就是减速插值器的曲线
+     */
+    public static class FixedDuration extends SettleModel {
+
+        private final Interpolator mInterpolator;
+        private float mStartValue;
+        private float mStartDistance;//初始速率 * 时长，为0时使用插值器
+        private float mDuration;
+
+        public FixedDuration() {
+            this(new DecelerateInterpolator());
+        }
+
+        public FixedDuration(@NonNull Interpolator interpolator) {
+            mInterpolator = interpolator;
+        }
+
+        @Override
+        void start(float start, float end, float velocity, long duration) {
+            mStartValue = mValue = start;
+            mEndValue = end;
+            mVelocity = velocity;
+            mDuration = Math.max(duration, 0);
+            float distance = end - start;
+            float velocityPerMillis = velocity / 1000;
+            //速率太快的话曲线会冲过终点，缩短时长使它刚好在终点停下
+            if (velocity != 0 && (velocity > 0) == (distance > 0)
+                    && Math.abs(velocityPerMillis * mDuration) > Math.abs(distance * 3)) {
+                mDuration = distance * 3 / velocityPerMillis;
+            }
+            mStartDistance = velocityPerMillis * mDuration;
+        }
+
+        @Override
+        boolean update(float elapsed) {
+            if (mDuration == 0 || elapsed >= mDuration) {
+                mValue = mEndValue;
+                mVelocity = 0;
+                return true;
+            }
+            float fraction = elapsed / mDuration;
+            float distance = mEndValue - mStartValue;
+            if (mStartDistance == 0) {
+                mValue = mStartValue + distance * mInterpolator.getInterpolation(fraction);
+                //插值器的导数，用差分来近似
+                float step = .01F;
+                float from = Math.min(fraction, 1 - step);
+                mVelocity = (mInterpolator.getInterpolation(from + step) - mInterpolator.getInterpolation(from))
+                        / step * distance / mDuration * 1000;
+            } else {
+                float a = mStartDistance, b = 3 * distance - 2 * mStartDistance, c = mStartDistance - 2 * distance;
+                mValue = mStartValue + fraction * (a + fraction * (b + fraction * c));
+                mVelocity = (a + fraction * (2 * b + fraction * 3 * c)) / mDuration * 1000;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 弹簧：按阻尼振动的解析解计算每一帧的位置，距离越远、速率越快，时长就越长，
+     * 可以直接接上松手时的速率
+     */
+    public static class Spring extends SettleModel {
+
+        public static final float DEFAULT_STIFFNESS = 1500;//跟SpringForce.STIFFNESS_MEDIUM一样
+        public static final float DEFAULT_DAMPING_RATIO = 1;//临界阻尼，不会回弹
+
+        private static final float VALUE_THRESHOLD = .5F;//离终点小于半个像素
+        private static final float VELOCITY_THRESHOLD = 10;//并且速率小于10像素/秒时，认为已经停下
+
+        private final float mStiffness;
+        private final float mDampingRatio;
+        private final float mNaturalFrequency;//无阻尼时的角频率
+        private float mStartDisplacement;//起点相对于终点的位移
+        private float mStartVelocity;
+
+        public Spring() {
+            this(DEFAULT_STIFFNESS, DEFAULT_DAMPING_RATIO);
+        }
+
+        /**
+         * @param stiffness    刚度，越大越快
+         * @param dampingRatio 阻尼比，小于1时会回弹
+         */
+        public Spring(@FloatRange(from = 0, fromInclusive = false) float stiffness,
+                      @FloatRange(from = 0, fromInclusive = false) float dampingRatio) {
+            if (stiffness <= 0 || dampingRatio <= 0) {
+                throw new IllegalArgumentException("stiffness and dampingRatio must be greater than 0!");
+            }
+            mStiffness = stiffness;
+            mDampingRatio = dampingRatio;
+            mNaturalFrequency = (float) Math.sqrt(stiffness);
+        }
+
+        public float getStiffness() {
+            return mStiffness;
+        }
+
+        public float getDampingRatio() {
+            return mDampingRatio;
+        }
+
+        @Override
+        void start(float start, float end, float velocity, long duration) {
+            mValue = start;
+            mEndValue = end;
+            mVelocity = mStartVelocity = velocity;
+            mStartDisplacement = start - end;
+        }
+
+        @Override
+        boolean update(float elapsed) {
+            double t = elapsed / 1000D;
+            double w = mNaturalFrequency, z = mDampingRatio;
+            double x0 = mStartDisplacement, v0 = mStartVelocity;
+            double x, v;
+            if (z < 1) {
+                //欠阻尼
+                double wd = w * Math.sqrt(1 - z * z);
+                double decay = Math.exp(-z * w * t);
+                double b = (v0 + z * w * x0) / wd;
+                double cos = Math.cos(wd * t), sin = Math.sin(wd * t);
+                x = decay * (x0 * cos + b * sin);
+                v = -z * w * x + decay * (-x0 * wd * sin + b * wd * cos);
+            } else if (z == 1) {
+                //临界阻尼
+                double decay = Math.exp(-w * t);
+                double b = v0 + w * x0;
+                x = decay * (x0 + b * t);
+                v = decay * (b - w * (x0 + b * t));
+            } else {
+                //过阻尼
+                double root = w * Math.sqrt(z * z - 1);
+                double r1 = -z * w + root, r2 = -z * w - root;
+                double c2 = (v0 - r1 * x0) / (r2 - r1);
+                double c1 = x0 - c2;
+                double e1 = Math.exp(r1 * t), e2 = Math.exp(r2 * t);
+                x = c1 * e1 + c2 * e2;
+                v = c1 * r1 * e1 + c2 * r2 * e2;
+            }
+            if (Math.abs(x) < VALUE_THRESHOLD && Math.abs(v) < VELOCITY_THRESHOLD) {
+                mValue = mEndValue;
+                mVelocity = 0;
+                return true;
+            }
+            mValue = (float) (mEndValue + x);
+            mVelocity = (float) v;
+            return false;
+        }
+    }
+}
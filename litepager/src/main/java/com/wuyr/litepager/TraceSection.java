@@ -0,0 +1,75 @@
+package com.wuyr.litepager;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ * 在systrace/Perfetto中标记LitePager的耗时片段，通过{@link LitePager#setTraceEnabled(boolean)}开关
+ * 没有开启时只是读一个静态变量，不会调用系统接口
+ * 用法：
+ * boolean traced = TraceSection.begin(TraceSection.ON_LAYOUT);
+ * ...
+ * TraceSection.end(traced);
+ * 开始时记录下有没有真的开始，结束时用它来判断，这样中途切换开关也不会导致开始和结束不配对
+ *
+ * @author wuyr
+ * @github https://github.com/wuyr/LitePager
+ * @since 2026-10-17 下午7:26
+ */
+final class TraceSection {
+
+    static final String ON_MEASURE = "LitePager#onMeasure";
+    static final String ON_LAYOUT = "LitePager#onLayout";
+    static final String UPDATE_CHILD_ORDER = "LitePager#updateChildOrder";
+    static final String UPDATE_ADAPTER_DATA = "LitePager#updateAdapterData";
+    static final String CREATE_VIEW = "LitePager#onCreateView";
+    static final String BIND_VIEW = "LitePager#onBindView";
+    static final String FIND_HIT_VIEW = "LitePager#findHitView";
+    static final String SETTLE_FRAME = "LitePager#settleFrame";
+
+    /**
+     * android.os.Trace在API 18才加入，低版本上开启也没用
+     */
+    private static boolean isEnabled;
+
+    private TraceSection() {
+    }
+
+    static void setEnabled(boolean enable) {
+        isEnabled = enable && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+    }
+
+    static boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * 开始一个片段
+     *
+     * @return 是否真的开始了，结束时要传给{@link #end(boolean)}
+     */
+    static boolean begin(String name) {
+        if (!isEnabled) {
+            return false;
+        }
+        beginSection(name);
+        return true;
+    }
+
+    static void end(boolean traced) {
+        if (traced) {
+            endSection();
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    private static void beginSection(String name) {
+        Trace.beginSection(name);
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+    private static void endSection() {
+        Trace.endSection();
+    }
+}
@@ -0,0 +1,295 @@
+package com.wuyr.litepager;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link DiffResult}的单元测试
+ *
+ * @author wuyr
+ * @github https://github.com/wuyr/LitePager
+ * @since 2026-10-18 上午12:10
+ */
+public class DiffResultTest {
+
+    private static final ListAdapter.ItemCallback<Item> ITEM_CALLBACK = new ListAdapter.ItemCallback<Item>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Item oldItem, @NonNull Item newItem) {
+            return oldItem.mId == newItem.mId;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Item oldItem, @NonNull Item newItem) {
+            return oldItem.mContent == newItem.mContent;
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(@NonNull Item oldItem, @NonNull Item newItem) {
+            return newItem.mContent;
+        }
+    };
+
+    @Test
+    public void insert() {
+        DiffResult<Item> result = calculate(items(1, 2, 3), items(1, 4, 2, 3, 5));
+        assertNewPositions(result, 0, 2, 3);
+        assertNoContentChanged(result, 5);
+    }
+
+    @Test
+    public void remove() {
+        DiffResult<Item> result = calculate(items(1, 2, 3, 4, 5), items(1, 3, 4));
+        assertNewPositions(result, 0, -1, 1, 2, -1);
+        assertNoContentChanged(result, 3);
+    }
+
+    @Test
+    public void change() {
+        List<Item> newList = items(1, 2, 3);
+        newList.set(1, new Item(2, 100));
+        DiffResult<Item> result = calculate(items(1, 2, 3), newList);
+        assertNewPositions(result, 0, 1, 2);
+        assertFalse(result.isContentChanged(0));
+        assertTrue(result.isContentChanged(1));
+        assertFalse(result.isContentChanged(2));
+        assertEquals(100, result.getChangePayload(1));
+    }
+
+    @Test
+    public void move() {
+        DiffResult<Item> result = calculate(items(1, 2, 3, 4, 5), items(4, 1, 2, 3, 5));
+        assertNewPositions(result, 1, 2, 3, 0, 4);
+        assertNoContentChanged(result, 5);
+
+        result = calculate(items(1, 2), items(2, 1));
+        assertNewPositions(result, 1, 0);
+    }
+
+    @Test
+    public void moveAndChange() {
+        List<Item> newList = items(3, 1, 2);
+        newList.set(0, new Item(3, 100));
+        DiffResult<Item> result = calculate(items(1, 2, 3), newList);
+        assertNewPositions(result, 1, 2, 0);
+        assertTrue(result.isContentChanged(0));
+        assertFalse(result.isContentChanged(1));
+        assertFalse(result.isContentChanged(2));
+    }
+
+    @Test
+    public void emptyToNonEmpty() {
+        List<Item> newList = items(1, 2, 3);
+        DiffResult<Item> result = calculate(Collections.<Item>emptyList(), newList);
+        assertEquals(-1, result.getNewPosition(0));
+        assertNoContentChanged(result, 3);
+        assertEquals(0, result.getNearestNewPosition(0));
+        assertEquals(newList, result.getNewList());
+    }
+
+    @Test
+    public void nonEmptyToEmpty() {
+        DiffResult<Item> result = calculate(items(1, 2, 3), Collections.<Item>emptyList());
+        assertNewPositions(result, -1, -1, -1);
+        assertFalse(result.isContentChanged(0));
+        assertEquals(0, result.getNearestNewPosition(2));
+    }
+
+    @Test
+    public void emptyToEmpty() {
+        DiffResult<Item> result = calculate(Collections.<Item>emptyList(), Collections.<Item>emptyList());
+        assertEquals(-1, result.getNewPosition(0));
+        assertEquals(0, result.getNearestNewPosition(0));
+    }
+
+    @Test
+    public void nearestNewPosition() {
+        //被移除的用后面第一个保留下来的，后面没有的话用前面的
+        DiffResult<Item> result = calculate(items(1, 2, 3, 4, 5), items(5, 1, 3));
+        assertEquals(1, result.getNearestNewPosition(0));
+        assertEquals(2, result.getNearestNewPosition(1));
+        assertEquals(2, result.getNearestNewPosition(2));
+        assertEquals(0, result.getNearestNewPosition(3));
+        assertEquals(0, result.getNearestNewPosition(4));
+
+        result = calculate(items(1, 2, 3), items(1, 2));
+        assertEquals(1, result.getNearestNewPosition(2));
+    }
+
+    @Test
+    public void outOfRange() {
+        DiffResult<Item> result = calculate(items(1, 2), items(1, 2));
+        assertEquals(-1, result.getNewPosition(-1));
+        assertEquals(-1, result.getNewPosition(2));
+        assertFalse(result.isContentChanged(-1));
+        assertFalse(result.isContentChanged(2));
+    }
+
+    @Test
+    public void exceedMaxEditDistance() {
+        //完全倒序时编辑距离超过上限，当作全部数据都被替换了
+        int size = 600;
+        List<Item> oldList = new ArrayList<>(), newList = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            oldList.add(new Item(i, 0));
+            newList.add(new Item(size - 1 - i, 0));
+        }
+        DiffResult<Item> result = calculate(oldList, newList);
+        for (int i = 0; i < size; i++) {
+            assertEquals(-1, result.getNewPosition(i));
+            assertFalse(result.isContentChanged(i));
+        }
+    }
+
+    @Test
+    public void random() {
+        Random random = new Random(20261018);
+        for (int round = 0; round < 1000; round++) {
+            List<Item> oldList = randomList(random, random.nextInt(30));
+            List<Item> newList = mutate(random, oldList, round);
+            assertApplied(oldList, newList, calculate(oldList, newList));
+        }
+    }
+
+    /**
+     * 按差异结果把旧列表转换成新列表，结果要跟新列表完全一样
+     */
+    private static void assertApplied(List<Item> oldList, List<Item> newList, DiffResult<Item> result) {
+        Set<Integer> oldIds = new HashSet<>(), newIds = new HashSet<>();
+        for (Item item : oldList) {
+            oldIds.add(item.mId);
+        }
+        for (Item item : newList) {
+            newIds.add(item.mId);
+        }
+        Item[] applied = new Item[newList.size()];
+        for (int oldPosition = 0; oldPosition < oldList.size(); oldPosition++) {
+            Item oldItem = oldList.get(oldPosition);
+            int newPosition = result.getNewPosition(oldPosition);
+            if (newPosition == -1) {
+                //只有新列表中不存在的才会被移除
+                assertFalse(newIds.contains(oldItem.mId));
+                continue;
+            }
+            assertNull("duplicate new position " + newPosition, applied[newPosition]);
+            assertEquals(oldItem.mId, newList.get(newPosition).mId);
+            applied[newPosition] = result.isContentChanged(newPosition) ? newList.get(newPosition) : oldItem;
+        }
+        for (int newPosition = 0; newPosition < applied.length; newPosition++) {
+            if (applied[newPosition] == null) {
+                //剩下的是新插入的
+                Item newItem = newList.get(newPosition);
+                assertFalse(oldIds.contains(newItem.mId));
+                assertFalse(result.isContentChanged(newPosition));
+                applied[newPosition] = newItem;
+            }
+        }
+        assertEquals(newList, Arrays.asList(applied));
+        assertEquals(newList, result.getNewList());
+    }
+
+    /**
+     * 随机移除、插入、移动和修改数据
+     */
+    private static List<Item> mutate(Random random, List<Item> oldList, int round) {
+        List<Item> newList = new ArrayList<>(oldList);
+        int removeCount = newList.isEmpty() ? 0 : random.nextInt(newList.size() / 2 + 1);
+        for (int i = 0; i < removeCount; i++) {
+            newList.remove(random.nextInt(newList.size()));
+        }
+        int insertCount = random.nextInt(5);
+        for (int i = 0; i < insertCount; i++) {
+            //新插入的id不会跟旧数据重复
+            newList.add(random.nextInt(newList.size() + 1), new Item(1000 + round * 10 + i, 0));
+        }
+        int moveCount = newList.isEmpty() ? 0 : random.nextInt(4);
+        for (int i = 0; i < moveCount; i++) {
+            Item item = newList.remove(random.nextInt(newList.size()));
+            newList.add(random.nextInt(newList.size() + 1), item);
+        }
+        for (int i = 0; i < newList.size(); i++) {
+            if (random.nextInt(5) == 0) {
+                newList.set(i, new Item(newList.get(i).mId, newList.get(i).mContent + 1));
+            }
+        }
+        return newList;
+    }
+
+    private static List<Item> randomList(Random random, int size) {
+        List<Item> list = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            list.add(new Item(i, random.nextInt(3)));
+        }
+        Collections.shuffle(list, random);
+        return list;
+    }
+
+    private static DiffResult<Item> calculate(List<Item> oldList, List<Item> newList) {
+        return DiffResult.calculate(oldList, newList, ITEM_CALLBACK);
+    }
+
+    private static void assertNewPositions(DiffResult<Item> result, int... newPositions) {
+        for (int i = 0; i < newPositions.length; i++) {
+            assertEquals("old position " + i, newPositions[i], result.getNewPosition(i));
+        }
+    }
+
+    private static void assertNoContentChanged(DiffResult<Item> result, int newSize) {
+        for (int i = 0; i < newSize; i++) {
+            assertFalse(result.isContentChanged(i));
+        }
+    }
+
+    private static List<Item> items(int... ids) {
+        List<Item> list = new ArrayList<>();
+        for (int id : ids) {
+            list.add(new Item(id, 0));
+        }
+        return list;
+    }
+
+    private static class Item {
+
+        final int mId;
+        final int mContent;
+
+        Item(int id, int content) {
+            mId = id;
+            mContent = content;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Item)) {
+                return false;
+            }
+            Item item = (Item) o;
+            return mId == item.mId && mContent == item.mContent;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * mId + mContent;
+        }
+
+        @Override
+        public String toString() {
+            return mId + ":" + mContent;
+        }
+    }
+}
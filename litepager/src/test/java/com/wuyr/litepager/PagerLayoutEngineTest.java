@@ -0,0 +1,223 @@
+package com.wuyr.litepager;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link PagerLayoutEngine}的单元测试
+ *
+ * @author wuyr
+ * @github https://github.com/wuyr/LitePager
+ * @since 2026-10-18 上午12:25
+ */
+public class PagerLayoutEngineTest {
+
+    private static final float DELTA = 1e-4F;
+    private static final int SIZE = 800;
+
+    @Test
+    public void fixSlotCount() {
+        assertEquals(3, PagerLayoutEngine.fixSlotCount(0));
+        assertEquals(3, PagerLayoutEngine.fixSlotCount(1));
+        assertEquals(3, PagerLayoutEngine.fixSlotCount(2));
+        assertEquals(3, PagerLayoutEngine.fixSlotCount(3));
+        assertEquals(5, PagerLayoutEngine.fixSlotCount(4));
+        assertEquals(5, PagerLayoutEngine.fixSlotCount(5));
+        assertEquals(7, PagerLayoutEngine.fixSlotCount(6));
+    }
+
+    @Test
+    public void relativeIndex() {
+        assertRelativeIndexes(3, -1, 1, 0);
+        assertRelativeIndexes(5, -2, 2, -1, 1, 0);
+        assertRelativeIndexes(7, -3, 3, -2, 2, -1, 1, 0);
+    }
+
+    @Test
+    public void slotByColumn() {
+        for (int slotCount = 3; slotCount <= 11; slotCount += 2) {
+            int half = slotCount / 2;
+            for (int column = 0; column < slotCount; column++) {
+                int slot = PagerLayoutEngine.getSlotByColumn(column, slotCount);
+                assertEquals(column - half, PagerLayoutEngine.getRelativeIndex(slot, slotCount));
+            }
+        }
+    }
+
+    @Test
+    public void baseLines() {
+        for (int slotCount = 3; slotCount <= 7; slotCount += 2) {
+            PagerLayoutEngine engine = createEngine(slotCount);
+            for (int column = 0; column < slotCount; column++) {
+                int slot = PagerLayoutEngine.getSlotByColumn(column, slotCount);
+                //第i个子View在第i个槽位上，从左到右等距排列
+                assertEquals((float) SIZE / (slotCount + 1) * (column + 1), engine.getBaseLine(slot), DELTA);
+            }
+        }
+    }
+
+    @Test
+    public void scalesAndAlphas() {
+        //从左到右
+        assertColumns(createEngine(3),
+                new float[]{.8F, 1, .8F},
+                new float[]{.4F, 1, .4F});
+        assertColumns(createEngine(5),
+                new float[]{.6F, .8F, 1, .8F, .6F},
+                new float[]{.2F, .4F, 1, .4F, .2F});
+        assertColumns(createEngine(7),
+                new float[]{.6F, .7F, .8F, 1, .8F, .7F, .6F},
+                new float[]{.2F, .3F, .4F, 1, .4F, .3F, .2F});
+    }
+
+    @Test
+    public void evenChildCount() {
+        //子View数量为偶数时，空出来的槽位也要算上
+        PagerLayoutEngine engine = createEngine(4);
+        assertEquals(5, engine.getSlotCount());
+        assertEquals(SIZE / 6F, engine.getBaseLine(0), DELTA);
+        assertEquals(SIZE / 6F * 5, engine.getBaseLine(1), DELTA);
+        assertEquals(.6F, engine.getScale(0), DELTA);
+        assertEquals(.8F, engine.getScale(2), DELTA);
+    }
+
+    @Test
+    public void transforms() {
+        PagerLayoutEngine engine = createEngine(5);
+        moveTo(engine, .5F);
+        //中间的子View(槽位4)向右移动到槽位3
+        assertEquals(3, engine.getTo(4));
+        assertEquals(SIZE / 6F * 3.5F, engine.getBaseLine(4), DELTA);
+        assertEquals(.9F, engine.getScale(4), DELTA);
+        //离开中间槽位的子View，不透明度在前半段就已经改变完成
+        assertEquals(.4F, engine.getAlpha(4), DELTA);
+        //移动到中间槽位的子View(槽位2)，不透明度要在后半段才开始改变
+        assertEquals(4, engine.getTo(2));
+        assertEquals(SIZE / 6F * 2.5F, engine.getBaseLine(2), DELTA);
+        assertEquals(.9F, engine.getScale(2), DELTA);
+        assertEquals(.4F, engine.getAlpha(2), DELTA);
+
+        moveTo(engine, .75F);
+        assertEquals(.4F, engine.getAlpha(4), DELTA);
+        assertEquals(.7F, engine.getAlpha(2), DELTA);
+
+        //向左滑动时，目标槽位在另一边
+        moveTo(engine, -.5F);
+        assertEquals(2, engine.getTo(4));
+        assertEquals(SIZE / 6F * 2.5F, engine.getBaseLine(4), DELTA);
+    }
+
+    @Test
+    public void finishStep() {
+        PagerLayoutEngine engine = createEngine(5);
+        moveTo(engine, 1.25F);
+        assertTrue(engine.isStepFinished());
+        engine.finishStep();
+        assertEquals(.25F, engine.getOffsetPercent(), DELTA);
+        assertFalse(engine.isStepFinished());
+        //最右边的子View(槽位1)首尾相连，移到了最左边
+        assertEquals(0, engine.getFrom(1));
+        assertEquals(3, engine.getFrom(4));
+
+        engine.setOffsetPercent(Float.POSITIVE_INFINITY);
+        assertFalse(engine.isStepFinished());
+    }
+
+    @Test
+    public void drawingOrder() {
+        PagerLayoutEngine engine = createEngine(5);
+        //还没计算时按索引顺序
+        assertEquals(3, engine.getDrawingOrder(5, 3));
+
+        assertTrue(engine.updateDrawingOrder());
+        assertDrawingOrder(engine, 0, 1, 2, 3, 4);
+        assertFalse(engine.updateDrawingOrder());
+        //子View数量不一致时按索引顺序
+        assertEquals(1, engine.getDrawingOrder(4, 1));
+
+        //向右滑动，还没过一半时按起始槽位算，最右边的子View(槽位1)要绕到最左边，在最底层
+        moveTo(engine, .3F);
+        assertTrue(engine.updateDrawingOrder());
+        assertDrawingOrder(engine, 1, 0, 2, 3, 4);
+
+        //过了一半按目标槽位算，绕过去的子View仍然比另一边同样在最外面的子View(槽位3->1)低
+        moveTo(engine, .7F);
+        assertTrue(engine.updateDrawingOrder());
+        assertDrawingOrder(engine, 1, 3, 0, 4, 2);
+        assertFalse(engine.updateDrawingOrder());
+
+        //向左滑动时，最左边的子View(槽位0)绕到最右边
+        moveTo(engine, -.3F);
+        assertTrue(engine.updateDrawingOrder());
+        assertDrawingOrder(engine, 0, 1, 2, 3, 4);
+        moveTo(engine, -.7F);
+        engine.updateDrawingOrder();
+        assertDrawingOrder(engine, 0, 2, 1, 4, 3);
+    }
+
+    @Test
+    public void insertAndRemoveChild() {
+        PagerLayoutEngine engine = createEngine(3);
+        engine.setCapacity(5);
+        engine.insertChild(1, 3);
+        assertEquals(4, engine.getChildCount());
+        assertEquals(5, engine.getSlotCount());
+        assertEquals(0, engine.getFrom(0));
+        assertEquals(3, engine.getFrom(1));
+        assertEquals(1, engine.getFrom(2));
+        assertEquals(2, engine.getFrom(3));
+
+        engine.removeChild(1);
+        assertEquals(3, engine.getChildCount());
+        assertEquals(3, engine.getSlotCount());
+        assertEquals(0, engine.getFrom(0));
+        assertEquals(1, engine.getFrom(1));
+        assertEquals(2, engine.getFrom(2));
+    }
+
+    /**
+     * 创建指定数量的子View，缩放比例和不透明度使用LitePager的默认值，没有偏移
+     */
+    private static PagerLayoutEngine createEngine(int childCount) {
+        PagerLayoutEngine engine = new PagerLayoutEngine(childCount);
+        engine.setSize(SIZE);
+        engine.setScales(1, .8F, .6F);
+        engine.setAlphas(1, .4F, .2F);
+        engine.resetChildren(childCount);
+        moveTo(engine, 0);
+        return engine;
+    }
+
+    private static void moveTo(PagerLayoutEngine engine, float offsetPercent) {
+        engine.setOffsetPercent(offsetPercent);
+        engine.updateTargets();
+        engine.updateTransforms();
+    }
+
+    private static void assertRelativeIndexes(int slotCount, int... relativeIndexes) {
+        for (int slot = 0; slot < slotCount; slot++) {
+            assertEquals("slot " + slot, relativeIndexes[slot], PagerLayoutEngine.getRelativeIndex(slot, slotCount));
+        }
+    }
+
+    private static void assertColumns(PagerLayoutEngine engine, float[] scales, float[] alphas) {
+        int slotCount = engine.getSlotCount();
+        for (int column = 0; column < slotCount; column++) {
+            int slot = PagerLayoutEngine.getSlotByColumn(column, slotCount);
+            assertEquals("scale of column " + column, scales[column], engine.getScale(slot), DELTA);
+            assertEquals("alpha of column " + column, alphas[column], engine.getAlpha(slot), DELTA);
+        }
+    }
+
+    private static void assertDrawingOrder(PagerLayoutEngine engine, int... order) {
+        int[] actual = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            actual[i] = engine.getDrawingOrder(order.length, i);
+        }
+        assertArrayEquals(order, actual);
+    }
+}